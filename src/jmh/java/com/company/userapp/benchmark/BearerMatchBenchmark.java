@@ -0,0 +1,44 @@
+package com.company.userapp.benchmark;
+
+import com.company.userapp.util.JWTUtil;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Bearer check executed by {@code UserService.findById/update/delete}. Run with {@code -prof gc}
+ * to compare {@code gc.alloc.rate.norm} of the previous replace/trim/equals path and
+ * {@link JWTUtil#matchesToken(String, String)}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BearerMatchBenchmark {
+
+    private final String token = "eyJhbGciOiJIUzUxMiJ9.eyJzdWIiOiJqdWFuQHJvZHJpZ3Vlei5vcmciLCJpYXQiOjE2NTYyNTA2NzJ9"
+            + ".kH8lQ8wZ0cXbW5Z4mO2v0bR1m6sXk1H5o3JmVnQx9d4cY8sR2pL7tF0aE3gU6iW9yB1nM4qT7vZ0xC2eK5hJ8g";
+
+    private final String bearer = JWTUtil.TOKEN_PREFIX + token;
+
+    @Benchmark
+    public boolean replaceTrimEquals() {
+        return bearer.replace(JWTUtil.TOKEN_PREFIX, "").trim().equals(token);
+    }
+
+    @Benchmark
+    public boolean matchesToken() {
+        return JWTUtil.matchesToken(bearer, token);
+    }
+
+}
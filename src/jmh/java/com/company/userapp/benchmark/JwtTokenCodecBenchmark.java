@@ -0,0 +1,74 @@
+package com.company.userapp.benchmark;
+
+import com.company.userapp.configuration.AppConfig;
+import com.company.userapp.security.JwtTokenCodec;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the per-call jjwt builder/parser (previous implementation) with {@link JwtTokenCodec}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JwtTokenCodecBenchmark {
+
+    private static final String SECRET = "SECRET_TOKEN_DEMO";
+
+    private static final String SUBJECT = "juan@rodriguez.org";
+
+    private JwtTokenCodec tokenCodec;
+
+    private String token;
+
+    @Setup
+    public void setup() {
+        tokenCodec = new JwtTokenCodec(SECRET, new AppConfig().objectMapper());
+        token = tokenCodec.sign(SUBJECT);
+    }
+
+    @Benchmark
+    public String signWithJjwtBuilder() {
+        return Jwts.builder()
+                .setSubject(SUBJECT)
+                .setIssuedAt(new Date(System.currentTimeMillis()))
+                .signWith(SignatureAlgorithm.HS512, SECRET)
+                .compact();
+    }
+
+    @Benchmark
+    public String signWithCodec() {
+        return tokenCodec.sign(SUBJECT);
+    }
+
+    @Benchmark
+    public String verifyWithJjwtParser() {
+        return Jwts.parser()
+                .setSigningKey(SECRET)
+                .parseClaimsJws(token)
+                .getBody()
+                .getSubject();
+    }
+
+    @Benchmark
+    public String verifyWithCodec() {
+        return tokenCodec.verify(token);
+    }
+
+}
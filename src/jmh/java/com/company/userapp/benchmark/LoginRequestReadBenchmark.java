@@ -0,0 +1,55 @@
+package com.company.userapp.benchmark;
+
+import com.company.userapp.configuration.AppConfig;
+import com.company.userapp.dto.model.AppUserDto;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Login body deserialization in {@code JWTAuthenticationFilter}: a new ObjectMapper per request
+ * (previous implementation) against the reader pre-built from the application ObjectMapper.
+ * Run with {@code -prof gc} to compare per-login allocation.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LoginRequestReadBenchmark {
+
+    private final byte[] body = "{\"email\":\"juan@rodriguez.org\",\"password\":\"hunter2\"}".getBytes(StandardCharsets.UTF_8);
+
+    private ObjectReader appUserReader;
+
+    @Setup
+    public void setup() {
+        appUserReader = new AppConfig().objectMapper().readerFor(AppUserDto.class);
+    }
+
+    @Benchmark
+    public AppUserDto newObjectMapperPerRequest() throws IOException {
+        return new ObjectMapper().readValue(new ByteArrayInputStream(body), AppUserDto.class);
+    }
+
+    @Benchmark
+    public AppUserDto sharedObjectReader() throws IOException {
+        return appUserReader.readValue(new ByteArrayInputStream(body));
+    }
+
+}
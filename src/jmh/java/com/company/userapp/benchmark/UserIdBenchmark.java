@@ -0,0 +1,131 @@
+package com.company.userapp.benchmark;
+
+import com.company.userapp.util.UUIDUtil;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Comparator;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Inserts {@code users} users with one phone each into a fresh file-backed H2 database and prints
+ * the disk space taken by each table with its indexes, comparing the previous {@code varchar(36)}
+ * random ids with {@code binary(16)} random and time-ordered ids.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 3)
+@Fork(1)
+public class UserIdBenchmark {
+
+    private static final int BATCH_SIZE = 1000;
+
+    @Param({ "char-random", "binary-random", "binary-time-ordered" })
+    private String layout;
+
+    @Param({ "1000000" })
+    private int users;
+
+    private Path directory;
+
+    private Connection connection;
+
+    @Setup(Level.Iteration)
+    public void setup() throws IOException, SQLException {
+
+        directory = Files.createTempDirectory("user-id-benchmark");
+        connection = DriverManager.getConnection("jdbc:h2:file:" + directory.resolve("users"), "sa", "");
+        connection.setAutoCommit(false);
+
+        String idType = layout.startsWith("char") ? "varchar(36)" : "binary(16)";
+        try ( Statement statement = connection.createStatement() ) {
+            statement.execute("create table app_user (id " + idType + " not null, email varchar(255) not null, "
+                    + "primary key (id))");
+            statement.execute("create table phone (id integer not null, number varchar(255) not null, user_id "
+                    + idType + " not null, primary key (id), foreign key (user_id) references app_user (id))");
+        }
+        connection.commit();
+    }
+
+    @TearDown(Level.Iteration)
+    public void tearDown() throws IOException, SQLException {
+
+        try ( Statement statement = connection.createStatement();
+              ResultSet sizes = statement.executeQuery(
+                      "select disk_space_used('APP_USER'), disk_space_used('PHONE')") ) {
+            sizes.next();
+            System.out.printf("%n%s: app_user %d KiB, phone %d KiB%n", layout, sizes.getLong(1) / 1024, sizes.getLong(2) / 1024);
+        }
+
+        connection.close();
+        try ( Stream<Path> files = Files.walk(directory) ) {
+            files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+    }
+
+    @Benchmark
+    public int insertUsers() throws SQLException {
+
+        try ( PreparedStatement insertUser = connection.prepareStatement("insert into app_user (id, email) values (?, ?)");
+              PreparedStatement insertPhone = connection.prepareStatement("insert into phone (id, number, user_id) values (?, ?, ?)") ) {
+
+            for ( int i = 1; i <= users; i++ ) {
+                Object id = id();
+                insertUser.setObject(1, id);
+                insertUser.setString(2, "user" + i + "@domain.cl");
+                insertUser.addBatch();
+                insertPhone.setInt(1, i);
+                insertPhone.setString(2, String.valueOf(1000000 + i));
+                insertPhone.setObject(3, id);
+                insertPhone.addBatch();
+
+                if ( i % BATCH_SIZE == 0 ) {
+                    insertUser.executeBatch();
+                    insertPhone.executeBatch();
+                    connection.commit();
+                }
+            }
+            insertUser.executeBatch();
+            insertPhone.executeBatch();
+            connection.commit();
+        }
+
+        return users;
+    }
+
+    private Object id() {
+        switch ( layout ) {
+            case "char-random":
+                return UUID.randomUUID().toString();
+            case "binary-random":
+                return UUIDUtil.toBytes(UUID.randomUUID());
+            default:
+                return UUIDUtil.toBytes(UUIDUtil.timeOrdered());
+        }
+    }
+
+}
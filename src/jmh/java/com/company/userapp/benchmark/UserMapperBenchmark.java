@@ -0,0 +1,132 @@
+package com.company.userapp.benchmark;
+
+import com.company.userapp.configuration.AppConfig;
+import com.company.userapp.dto.model.PhoneDto;
+import com.company.userapp.dto.model.UserDto;
+import com.company.userapp.dto.response.UserResponse;
+import com.company.userapp.model.Phone;
+import com.company.userapp.model.User;
+import com.company.userapp.security.JwtTokenCodec;
+import com.company.userapp.security.PasswordHasher;
+import com.company.userapp.service.mapper.UserMapper;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.security.crypto.password.NoOpPasswordEncoder;
+
+import java.time.Instant;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the {@code ObjectMapper.convertValue} mapping (previous implementation) with the direct
+ * field copies in {@link UserMapper} for the three conversions. Password hashing is replaced by a
+ * no-op encoder so only the mapping cost is measured.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class UserMapperBenchmark {
+
+    @Param({ "1", "5", "50" })
+    private int phones;
+
+    private ObjectMapper objectMapper;
+
+    private PasswordHasher passwordHasher;
+
+    private JwtTokenCodec tokenCodec;
+
+    private UserMapper userMapper;
+
+    private UserDto userDto;
+
+    private User user;
+
+    @Setup
+    @SuppressWarnings("deprecation")
+    public void setup() {
+        objectMapper = new AppConfig().objectMapper();
+        passwordHasher = new PasswordHasher(NoOpPasswordEncoder.getInstance(), new MockEnvironment(), new SimpleMeterRegistry());
+        tokenCodec = new JwtTokenCodec("SECRET_TOKEN_DEMO", objectMapper);
+        userMapper = new UserMapper(passwordHasher, tokenCodec);
+
+        Set<PhoneDto> phoneDtos = new HashSet<>();
+        for ( int i = 0; i < phones; i++ ) {
+            phoneDtos.add(new PhoneDto(String.valueOf(1234567 + i), "1", "57"));
+        }
+        userDto = new UserDto("Juan Rodriguez", "juan@rodriguez.org", "hunter2", phoneDtos);
+
+        user = userMapper.toUser(userDto);
+        user.setId(UUID.randomUUID());
+    }
+
+    @TearDown
+    public void tearDown() {
+        passwordHasher.destroy();
+    }
+
+    @Benchmark
+    public User toUserWithConvertValue() {
+        User mapped = objectMapper.convertValue(userDto, User.class);
+        mapped.setPassword(passwordHasher.encode(mapped.getPassword()));
+        mapped.setCreated(Instant.now());
+        mapped.setModified(Instant.now());
+        mapped.setActive(true);
+        mapped.setLastLogin(mapped.getCreated());
+        mapped.setToken(tokenCodec.sign(mapped.getEmail()));
+        mapped.getPhones().forEach(phone -> phone.setUser(mapped));
+        return mapped;
+    }
+
+    @Benchmark
+    public User toUserWithMapper() {
+        return userMapper.toUser(userDto);
+    }
+
+    @Benchmark
+    public User updateEntityWithConvertValue() {
+        user.setModified(Instant.now());
+        user.setName(userDto.getName());
+        user.setEmail(userDto.getEmail());
+        user.setPassword(passwordHasher.encode(userDto.getPassword()));
+        Set<Phone> mapped = objectMapper.convertValue(userDto.getPhones(), new TypeReference<>(){});
+        mapped.forEach(phone -> phone.setUser(user));
+        user.setPhones(mapped);
+        return user;
+    }
+
+    @Benchmark
+    public User updateEntityWithMapper() {
+        return userMapper.updateEntity(user, userDto);
+    }
+
+    @Benchmark
+    public UserResponse entityToUserResponseWithConvertValue() {
+        return objectMapper.convertValue(user, UserResponse.class);
+    }
+
+    @Benchmark
+    public UserResponse entityToUserResponseWithMapper() {
+        return userMapper.entityToUserResponse(user);
+    }
+
+}
@@ -0,0 +1,91 @@
+package com.company.userapp.benchmark;
+
+import com.company.userapp.security.VerifiedTokenCache;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.mock.env.MockEnvironment;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Token cache lookups from concurrent requests: the previous synchronized access-order
+ * {@link LinkedHashMap}, where every read takes the one monitor, against {@link VerifiedTokenCache}.
+ * Both hash the token with SHA-256 first, as the cache keys do; the gap only shows with at least
+ * as many cores as {@code @Threads}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Threads(8)
+@Fork(1)
+public class VerifiedTokenCacheBenchmark {
+
+    private static final int TOKENS = 1000;
+
+    private static final ThreadLocal<MessageDigest> DIGEST = ThreadLocal.withInitial(() -> {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    });
+
+    private final String[] tokens = new String[TOKENS];
+
+    private final Map<String, String> synchronizedLru = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, String> eldest) {
+            return size() > 10000;
+        }
+    };
+
+    private VerifiedTokenCache tokenCache;
+
+    @Setup
+    public void setup() {
+        tokenCache = new VerifiedTokenCache(new MockEnvironment());
+        for ( int i = 0; i < TOKENS; i++ ) {
+            tokens[i] = "token-" + i;
+            tokenCache.put(tokens[i], "user" + i + "@domain.cl");
+            synchronizedLru.put(digest(tokens[i]), "user" + i + "@domain.cl");
+        }
+    }
+
+    @Benchmark
+    public String synchronizedLinkedHashMap() {
+        String key = digest(tokens[ThreadLocalRandom.current().nextInt(TOKENS)]);
+        synchronized (synchronizedLru) {
+            return synchronizedLru.get(key);
+        }
+    }
+
+    @Benchmark
+    public String verifiedTokenCache() {
+        return tokenCache.getSubject(tokens[ThreadLocalRandom.current().nextInt(TOKENS)]);
+    }
+
+    private static String digest(String token) {
+        MessageDigest digest = DIGEST.get();
+        digest.reset();
+        return Base64.getEncoder().encodeToString(digest.digest(token.getBytes(StandardCharsets.UTF_8)));
+    }
+
+}
@@ -0,0 +1,17 @@
+package com.company.userapp.cache;
+
+import java.util.Collection;
+import java.util.function.Consumer;
+
+/**
+ * Carries user invalidations between the nodes of a deployment. Publishing does not deliver to
+ * the publishing node, which applies its own invalidations directly; subscribers receive only
+ * the invalidations published by other nodes.
+ */
+public interface InvalidationBus {
+
+    void publish(Collection<UserInvalidation> invalidations);
+
+    void subscribe(Consumer<UserInvalidation> subscriber);
+
+}
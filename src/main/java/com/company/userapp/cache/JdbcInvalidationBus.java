@@ -0,0 +1,136 @@
+package com.company.userapp.cache;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.event.ContextRefreshedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * Shares invalidations through the {@code user_invalidation} table of the database every node
+ * already uses. Publishing is one batch insert; each node polls for rows newer than the last one
+ * it has seen and skips its own. Rows older than the retention are deleted periodically.
+ * <p>
+ * Ids are assigned on insert but rows become visible on commit, so a row can show up after a
+ * newer one was already polled. Each poll therefore also re-reads the rows created within the
+ * grace period before the previous poll, skipping the ids it already applied; the grace has to
+ * cover the longest publishing transaction plus the clock skew between nodes.
+ */
+@Slf4j
+public class JdbcInvalidationBus implements InvalidationBus {
+
+    private static final String INSERT = "INSERT INTO user_invalidation (node, type, user_id, token, email, created) "
+            + "VALUES (?, ?, ?, ?, ?, ?)";
+
+    private static final String SELECT = "SELECT id, node, type, user_id, token, email FROM user_invalidation "
+            + "WHERE id > ? OR created > ? ORDER BY id";
+
+    private static final String DELETE = "DELETE FROM user_invalidation WHERE created < ?";
+
+    private final String node = UUID.randomUUID().toString();
+
+    private final List<Consumer<UserInvalidation>> subscribers = new CopyOnWriteArrayList<>();
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final Duration retention;
+
+    private final Duration grace;
+
+    private long lastSeen = -1;
+
+    private Instant lastPoll;
+
+    private Set<Long> applied = new HashSet<>();
+
+    public JdbcInvalidationBus(JdbcTemplate jdbcTemplate, Duration retention, Duration grace) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.retention = retention;
+        this.grace = grace;
+    }
+
+    @Override
+    public void publish(Collection<UserInvalidation> invalidations) {
+
+        Timestamp created = Timestamp.from(Instant.now());
+        List<Object[]> rows = new ArrayList<>(invalidations.size());
+        for ( UserInvalidation invalidation : invalidations ) {
+            rows.add(new Object[] { node, invalidation.getType().name(),
+                    invalidation.getId() == null ? null : invalidation.getId().toString(),
+                    invalidation.getToken(), invalidation.getEmail(), created });
+        }
+
+        try {
+            jdbcTemplate.batchUpdate(INSERT, rows);
+        } catch (DataAccessException e) {
+            log.warn("Unable to publish {} user invalidations to the other nodes", rows.size(), e);
+        }
+    }
+
+    @Override
+    public void subscribe(Consumer<UserInvalidation> subscriber) {
+        subscribers.add(subscriber);
+    }
+
+    /**
+     * Starts after the newest existing row: a node that just started has nothing cached yet.
+     */
+    @EventListener(ContextRefreshedEvent.class)
+    public synchronized void start() {
+        if ( lastSeen < 0 ) {
+            lastPoll = Instant.now();
+            lastSeen = jdbcTemplate.queryForObject("SELECT COALESCE(MAX(id), 0) FROM user_invalidation", Long.class);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${user.cache.invalidation.poll-interval:1000}")
+    public synchronized void poll() {
+
+        try {
+            start();
+            Instant polled = Instant.now();
+            // the window only has to remember the ids it returns, older ones fall out of it
+            Set<Long> windowed = new HashSet<>();
+            jdbcTemplate.query(SELECT, row -> {
+                long id = row.getLong("id");
+                lastSeen = Math.max(lastSeen, id);
+                windowed.add(id);
+                if ( applied.contains(id) || node.equals(row.getString("node")) ) {
+                    return;
+                }
+                String userId = row.getString("user_id");
+                UserInvalidation invalidation = new UserInvalidation(UserInvalidation.Type.valueOf(row.getString("type")),
+                        userId == null ? null : UUID.fromString(userId), row.getString("token"), row.getString("email"));
+                subscribers.forEach(subscriber -> subscriber.accept(invalidation));
+            }, lastSeen, Timestamp.from(lastPoll.minus(grace)));
+            applied = windowed;
+            lastPoll = polled;
+        } catch (DataAccessException e) {
+            log.warn("Unable to poll user invalidations, retrying on next poll", e);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${user.cache.invalidation.cleanup-interval:60000}")
+    public void cleanup() {
+
+        try {
+            jdbcTemplate.update(DELETE, Timestamp.from(Instant.now().minus(retention)));
+        } catch (DataAccessException e) {
+            log.warn("Unable to delete expired user invalidations", e);
+        }
+    }
+
+}
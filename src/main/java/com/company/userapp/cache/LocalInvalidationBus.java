@@ -0,0 +1,58 @@
+package com.company.userapp.cache;
+
+import org.springframework.beans.factory.DisposableBean;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * Delivers invalidations synchronously to the other buses of the same channel in this JVM. A
+ * single instance deployment has no other bus, so publishing costs nothing; several application
+ * contexts started in one JVM see each other as nodes.
+ */
+public class LocalInvalidationBus implements InvalidationBus, DisposableBean {
+
+    private static final Map<String, Set<LocalInvalidationBus>> CHANNELS = new ConcurrentHashMap<>();
+
+    private final String channel;
+
+    private final List<Consumer<UserInvalidation>> subscribers = new CopyOnWriteArrayList<>();
+
+    public LocalInvalidationBus(String channel) {
+        this.channel = channel;
+        CHANNELS.computeIfAbsent(channel, name -> ConcurrentHashMap.newKeySet()).add(this);
+    }
+
+    @Override
+    public void publish(Collection<UserInvalidation> invalidations) {
+
+        for ( LocalInvalidationBus node : CHANNELS.getOrDefault(channel, Set.of()) ) {
+            if ( node != this ) {
+                invalidations.forEach(node::deliver);
+            }
+        }
+    }
+
+    @Override
+    public void subscribe(Consumer<UserInvalidation> subscriber) {
+        subscribers.add(subscriber);
+    }
+
+    private void deliver(UserInvalidation invalidation) {
+        subscribers.forEach(subscriber -> subscriber.accept(invalidation));
+    }
+
+    @Override
+    public void destroy() {
+        CHANNELS.computeIfPresent(channel, (name, nodes) -> {
+            nodes.remove(this);
+            return nodes.isEmpty() ? null : nodes;
+        });
+    }
+
+}
@@ -0,0 +1,38 @@
+package com.company.userapp.cache;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.UUID;
+
+/**
+ * A change to a user that makes cached copies of it stale: its row changed, it was deleted (and
+ * its token must no longer be trusted), or a new email was registered.
+ */
+@Getter
+@AllArgsConstructor
+public class UserInvalidation {
+
+    public enum Type { USER_CHANGED, USER_DELETED, EMAIL_REGISTERED }
+
+    private final Type type;
+
+    private final UUID id;
+
+    private final String token;
+
+    private final String email;
+
+    public static UserInvalidation userChanged(UUID id) {
+        return new UserInvalidation(Type.USER_CHANGED, id, null, null);
+    }
+
+    public static UserInvalidation userDeleted(UUID id, String token) {
+        return new UserInvalidation(Type.USER_DELETED, id, token, null);
+    }
+
+    public static UserInvalidation emailRegistered(String email) {
+        return new UserInvalidation(Type.EMAIL_REGISTERED, null, null, email);
+    }
+
+}
@@ -1,22 +1,55 @@
 package com.company.userapp.configuration;
 
+import com.company.userapp.model.PhoneIdGenerator;
+import com.company.userapp.model.UserIdGenerator;
+import com.company.userapp.security.BCryptStrengthCalibrator;
+import com.company.userapp.security.OperationsKeyFilter;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.SerializationFeature;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
 import io.swagger.v3.oas.annotations.enums.SecuritySchemeIn;
 import io.swagger.v3.oas.annotations.enums.SecuritySchemeType;
 import io.swagger.v3.oas.annotations.security.SecurityScheme;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.scheduling.annotation.EnableScheduling;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.DelegatingPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.crypto.password.Pbkdf2PasswordEncoder;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
 
 @Configuration
+@EnableScheduling
 @SecurityScheme(name = "Auth_Jwt_Token", scheme = "bearer", type = SecuritySchemeType.HTTP, in = SecuritySchemeIn.HEADER)
+@SecurityScheme(name = "Operations_Key", paramName = OperationsKeyFilter.HEADER_OPERATIONS_KEY, type = SecuritySchemeType.APIKEY, in = SecuritySchemeIn.HEADER)
 public class AppConfig {
 
     @Bean
-    public BCryptPasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public PasswordEncoder passwordEncoder(Environment environment) {
+
+        String strength = environment.getProperty("user.password.bcrypt.strength", "auto");
+        int bcryptStrength = "auto".equalsIgnoreCase(strength)
+                ? BCryptStrengthCalibrator.calibrate(
+                        environment.getProperty("user.password.hash-budget", Duration.class, Duration.ofMillis(250)),
+                        environment.getProperty("user.password.bcrypt.min-strength", Integer.class, 10),
+                        environment.getProperty("user.password.bcrypt.max-strength", Integer.class, 14))
+                : Integer.parseInt(strength);
+
+        Map<String, PasswordEncoder> encoders = new HashMap<>();
+        encoders.put("bcrypt", new BCryptPasswordEncoder(bcryptStrength));
+        encoders.put("pbkdf2", new Pbkdf2PasswordEncoder());
+
+        DelegatingPasswordEncoder passwordEncoder = new DelegatingPasswordEncoder(
+                environment.getProperty("user.password.encoder", "bcrypt"), encoders);
+        passwordEncoder.setDefaultPasswordEncoderForMatches(new BCryptPasswordEncoder(bcryptStrength));
+
+        return passwordEncoder;
     }
 
     @Bean
@@ -25,4 +58,14 @@ public class AppConfig {
                 .configure(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS, false);
     }
 
+    @Bean
+    public HibernatePropertiesCustomizer idGeneratorCustomizer(Environment environment) {
+        return properties -> {
+            properties.put(UserIdGenerator.STRATEGY_SETTING,
+                    environment.getProperty("user.id.generator", UserIdGenerator.TIME_ORDERED));
+            properties.put(PhoneIdGenerator.ALLOCATION_SIZE_SETTING,
+                    environment.getProperty("user.phone.id.allocation-size", Integer.class, PhoneIdGenerator.DEFAULT_ALLOCATION_SIZE));
+        };
+    }
+
 }
@@ -0,0 +1,28 @@
+package com.company.userapp.configuration;
+
+import com.company.userapp.cache.InvalidationBus;
+import com.company.userapp.cache.JdbcInvalidationBus;
+import com.company.userapp.cache.LocalInvalidationBus;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.Duration;
+
+@Configuration
+public class CacheInvalidationConfig {
+
+    @Bean
+    public InvalidationBus invalidationBus(Environment environment, JdbcTemplate jdbcTemplate) {
+
+        if ( "jdbc".equalsIgnoreCase(environment.getProperty("user.cache.invalidation.bus", "local")) ) {
+            return new JdbcInvalidationBus(jdbcTemplate,
+                    environment.getProperty("user.cache.invalidation.retention", Duration.class, Duration.ofMinutes(10)),
+                    environment.getProperty("user.cache.invalidation.grace", Duration.class, Duration.ofSeconds(30)));
+        }
+
+        return new LocalInvalidationBus(environment.getProperty("user.cache.invalidation.channel", "users"));
+    }
+
+}
@@ -0,0 +1,65 @@
+package com.company.userapp.configuration;
+
+import com.company.userapp.model.Phone;
+import com.company.userapp.model.User;
+import org.ehcache.config.builders.CacheConfigurationBuilder;
+import org.ehcache.config.builders.ConfigurationBuilder;
+import org.ehcache.config.builders.ExpiryPolicyBuilder;
+import org.ehcache.config.builders.ResourcePoolsBuilder;
+import org.ehcache.jsr107.EhcacheCachingProvider;
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.hibernate.cache.spi.RegionFactory;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import java.net.URI;
+import java.time.Duration;
+import java.util.UUID;
+
+/**
+ * Heap-only Ehcache regions backing the Hibernate second-level cache of users, their phones and
+ * cached queries, bounded by {@code user.cache.max-entries} and expiring after {@code user.cache.ttl}.
+ * The update timestamps region never expires, as Hibernate requires, so a cached query result
+ * can never outlive a write to the tables it reads.
+ */
+@Configuration
+public class SecondLevelCacheConfig {
+
+    private static final String[] EXPIRING_REGIONS = { User.class.getName(), User.class.getName() + ".phones",
+            Phone.class.getName(), RegionFactory.DEFAULT_QUERY_RESULTS_REGION_UNQUALIFIED_NAME };
+
+    @Bean(destroyMethod = "close")
+    public CacheManager secondLevelCacheManager(Environment environment) {
+
+        long maxEntries = environment.getProperty("user.cache.max-entries", Long.class, 10000L);
+        Duration ttl = environment.getProperty("user.cache.ttl", Duration.class, Duration.ofMinutes(10));
+
+        ConfigurationBuilder configuration = ConfigurationBuilder.newConfigurationBuilder();
+        for ( String region : EXPIRING_REGIONS ) {
+            configuration = configuration.withCache(region, CacheConfigurationBuilder
+                    .newCacheConfigurationBuilder(Object.class, Object.class, ResourcePoolsBuilder.heap(maxEntries))
+                    .withExpiry(ExpiryPolicyBuilder.timeToLiveExpiration(ttl)));
+        }
+        configuration = configuration.withCache(RegionFactory.DEFAULT_UPDATE_TIMESTAMPS_REGION_UNQUALIFIED_NAME,
+                CacheConfigurationBuilder.newCacheConfigurationBuilder(Object.class, Object.class, ResourcePoolsBuilder.heap(maxEntries))
+                        .withExpiry(ExpiryPolicyBuilder.noExpiration()));
+
+        EhcacheCachingProvider provider = (EhcacheCachingProvider) Caching.getCachingProvider(EhcacheCachingProvider.class.getName());
+        // a manager per application context, so test contexts never share cached entities
+        return provider.getCacheManager(URI.create("urn:userapp:second-level-cache:" + UUID.randomUUID()),
+                configuration.build());
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer secondLevelCacheCustomizer(CacheManager secondLevelCacheManager) {
+        return properties -> {
+            properties.put(ConfigSettings.CACHE_MANAGER, secondLevelCacheManager);
+            properties.put(ConfigSettings.MISSING_CACHE_STRATEGY, "fail");
+        };
+    }
+
+}
@@ -1,18 +1,30 @@
 package com.company.userapp.controller;
 
 import com.company.userapp.dto.model.UserDto;
+import com.company.userapp.dto.model.UserPatchDto;
+import com.company.userapp.dto.response.BatchUserResponse;
+import com.company.userapp.dto.response.SerializedUserResponse;
+import com.company.userapp.dto.response.UserPageResponse;
 import com.company.userapp.dto.response.UserResponse;
+import com.company.userapp.service.UserBatchService;
+import com.company.userapp.service.UserExportService;
+import com.company.userapp.service.UserListingService;
 import com.company.userapp.service.UserService;
+import com.company.userapp.util.ETagUtil;
 import com.company.userapp.util.JWTUtil;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import javax.servlet.http.HttpServletRequest;
 import javax.validation.Valid;
 
 import javax.validation.constraints.NotNull;
+import java.util.List;
 
 @RestController
 @RequestMapping("/users")
@@ -20,9 +32,19 @@ public class UserController implements UserControllerApi {
 
     private UserService userService;
 
+    private UserBatchService userBatchService;
+
+    private UserListingService userListingService;
+
+    private UserExportService userExportService;
+
     @Autowired
-    public UserController(UserService userService) {
+    public UserController(UserService userService, UserBatchService userBatchService,
+                          UserListingService userListingService, UserExportService userExportService) {
         this.userService = userService;
+        this.userBatchService = userBatchService;
+        this.userListingService = userListingService;
+        this.userExportService = userExportService;
     }
 
     @Override
@@ -32,18 +54,63 @@ public class UserController implements UserControllerApi {
         return ResponseEntity.status(HttpStatus.CREATED).body(userService.create(userDto));
     }
 
+    @Override
+    @PostMapping("/batch")
+    public ResponseEntity<List<BatchUserResponse>> createAll(List<UserDto> userDtos) {
+
+        return ResponseEntity.ok(userBatchService.create(userDtos));
+    }
+
+    @Override
+    @GetMapping
+    public ResponseEntity<UserPageResponse> list(String cursor, Integer limit, Boolean active, String emailPrefix) {
+
+        return ResponseEntity.ok(userListingService.list(cursor, limit, active, emailPrefix));
+    }
+
+    @Override
+    @GetMapping(value = "/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> export(String after) {
+
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(userExportService.export(after));
+    }
+
     @Override
     @GetMapping("/{id}")
-    public ResponseEntity<UserResponse> findById(@Valid @NotNull(message = "Id must not null") String id, HttpServletRequest request) {
+    public ResponseEntity<byte[]> findById(@Valid @NotNull(message = "Id must not null") String id, HttpServletRequest request) {
 
-        return ResponseEntity.ok(userService.findById(id, request.getHeader(JWTUtil.HEADER_AUTHORIZATION)));
+        String bearer = request.getHeader(JWTUtil.HEADER_AUTHORIZATION);
+        String ifNoneMatch = request.getHeader(HttpHeaders.IF_NONE_MATCH);
+        if ( ifNoneMatch != null ) {
+            String eTag = userService.findETag(id, bearer);
+            if ( ETagUtil.matches(ifNoneMatch, eTag) ) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(eTag).build();
+            }
+        }
+
+        SerializedUserResponse response = userService.findSerializedById(id, bearer);
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .eTag(response.getETag())
+                .body(response.getBody());
     }
 
     @Override
     @PutMapping("/{id}")
     public ResponseEntity<UserResponse> update(@Valid @NotNull(message = "Id must not null") String id, UserDto userDto, HttpServletRequest request) {
 
-        return ResponseEntity.ok(userService.update(id, userDto, request.getHeader(JWTUtil.HEADER_AUTHORIZATION)));
+        return ResponseEntity.ok(userService.update(id, userDto, request.getHeader(JWTUtil.HEADER_AUTHORIZATION),
+                request.getHeader(HttpHeaders.IF_MATCH)));
+    }
+
+    @Override
+    @PatchMapping(value = "/{id}", consumes = { UserControllerApi.MERGE_PATCH_JSON_VALUE, MediaType.APPLICATION_JSON_VALUE })
+    public ResponseEntity<UserResponse> patch(@Valid @NotNull(message = "Id must not null") String id, UserPatchDto userPatchDto, HttpServletRequest request) {
+
+        return ResponseEntity.ok(userService.patch(id, userPatchDto, request.getHeader(JWTUtil.HEADER_AUTHORIZATION),
+                request.getHeader(HttpHeaders.IF_MATCH)));
     }
 
     @Override
@@ -1,12 +1,16 @@
 package com.company.userapp.controller;
 
 import com.company.userapp.dto.model.UserDto;
+import com.company.userapp.dto.model.UserPatchDto;
+import com.company.userapp.dto.response.BatchUserResponse;
 import com.company.userapp.dto.response.ErrorResponse;
+import com.company.userapp.dto.response.UserPageResponse;
 import com.company.userapp.dto.response.UserResponse;
 
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.enums.ParameterIn;
+import io.swagger.v3.oas.annotations.media.ArraySchema;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
@@ -18,14 +22,19 @@ import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import javax.servlet.http.HttpServletRequest;
 
 import javax.validation.Valid;
+import java.util.List;
 
 @Tag(name = "Users", description = "API allow to manage users")
 public interface UserControllerApi {
 
+    String MERGE_PATCH_JSON_VALUE = "application/merge-patch+json";
+
     /**
      * POST /users Create a new user
      *
@@ -50,10 +59,78 @@ public interface UserControllerApi {
                     mediaType = MediaType.APPLICATION_JSON_VALUE,
                     schema = @Schema(implementation = UserDto.class))) @Valid @RequestBody UserDto userDto);
 
+    /**
+     * POST /users/batch Create many users
+     *
+     * @return One result per user in request order, each with the status code the user would have
+     *         received from POST /users (status code 200)
+     *         or the batch is empty or too large (status code 400)
+     *         or Forbidden request (status code 403)
+     */
+    @Operation(summary = "Create many users", security = @SecurityRequirement(name = "Operations_Key"))
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Batch processed, see the status of each user", content = {
+                    @Content(mediaType = "application/json", array = @ArraySchema(schema = @Schema(implementation = BatchUserResponse.class))) }),
+            @ApiResponse(responseCode = "400", description = "Bad Request", content = {
+                    @Content(mediaType = "application/json", schema = @Schema(implementation = ErrorResponse.class)) }),
+            @ApiResponse(responseCode = "403", description = "Forbidden", content = {
+                    @Content(mediaType = "application/json", schema = @Schema(implementation = ErrorResponse.class)) }) })
+    public ResponseEntity<List<BatchUserResponse>> createAll(@io.swagger.v3.oas.annotations.parameters.RequestBody(
+            required = true,
+            content = @Content(
+                    mediaType = MediaType.APPLICATION_JSON_VALUE,
+                    array = @ArraySchema(schema = @Schema(implementation = UserDto.class)))) @RequestBody List<UserDto> userDtos);
+
+    /**
+     * GET /users List users
+     *
+     * @return Page of users ordered by creation date and the cursor of the next page (status code 200)
+     *         or Malformed syntax of the request params (status code 400)
+     *         or Forbidden request (status code 403)
+     */
+    @Operation(summary = "List users",
+            security = @SecurityRequirement(name = "Operations_Key"),
+            parameters = {
+                    @Parameter(name = "cursor", in = ParameterIn.QUERY, description = "The next cursor of the previous page"),
+                    @Parameter(name = "limit", in = ParameterIn.QUERY, description = "Users per page, 20 by default"),
+                    @Parameter(name = "active", in = ParameterIn.QUERY, description = "Only users with this active flag"),
+                    @Parameter(name = "email", in = ParameterIn.QUERY, description = "Only users whose email starts with this prefix") })
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Return users successfully", content = {
+                    @Content(mediaType = "application/json", schema = @Schema(implementation = UserPageResponse.class)) }),
+            @ApiResponse(responseCode = "400", description = "Bad Request", content = {
+                    @Content(mediaType = "application/json", schema = @Schema(implementation = ErrorResponse.class)) }),
+            @ApiResponse(responseCode = "403", description = "Forbidden", content = {
+                    @Content(mediaType = "application/json", schema = @Schema(implementation = ErrorResponse.class)) }) })
+    public ResponseEntity<UserPageResponse> list(@RequestParam(name = "cursor", required = false) String cursor,
+                                                 @RequestParam(name = "limit", required = false) Integer limit,
+                                                 @RequestParam(name = "active", required = false) Boolean active,
+                                                 @RequestParam(name = "email", required = false) String emailPrefix);
+
+    /**
+     * GET /users/export Export users
+     *
+     * @return Every user with its phones as one JSON object per line, ordered by id (status code 200)
+     *         or Malformed syntax of the request params (status code 400)
+     *         or Forbidden request (status code 403)
+     */
+    @Operation(summary = "Export users as NDJSON",
+            security = @SecurityRequirement(name = "Operations_Key"),
+            parameters = @Parameter(name = "after", in = ParameterIn.QUERY, description = "Resume after this user id, the id of the last line received"))
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Users exported successfully", content = {
+                    @Content(mediaType = MediaType.APPLICATION_NDJSON_VALUE, schema = @Schema(implementation = UserResponse.class)) }),
+            @ApiResponse(responseCode = "400", description = "Bad Request", content = {
+                    @Content(mediaType = "application/json", schema = @Schema(implementation = ErrorResponse.class)) }),
+            @ApiResponse(responseCode = "403", description = "Forbidden", content = {
+                    @Content(mediaType = "application/json", schema = @Schema(implementation = ErrorResponse.class)) }) })
+    public ResponseEntity<StreamingResponseBody> export(@RequestParam(name = "after", required = false) String after);
+
     /**
      * GET /users/:id Return user by id
      *
-     * @return Return user (status code 200)
+     * @return Return user as pre-serialized JSON with its ETag (status code 200)
+     *         or Not modified when If-None-Match carries the current ETag (status code 304)
      *         or Malformed syntax of the request params (status code 400)
      *         or Forbidden request (status code 403)
      *         or the user not found (status code 404)
@@ -65,6 +142,7 @@ public interface UserControllerApi {
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Return user successfully", content = {
                     @Content(mediaType = "application/json", schema = @Schema(implementation = UserResponse.class)) }),
+            @ApiResponse(responseCode = "304", description = "Not modified", content = @Content),
             @ApiResponse(responseCode = "400", description = "Bad Request", content = {
                     @Content(mediaType = "application/json", schema = @Schema(implementation = ErrorResponse.class)) }),
             @ApiResponse(responseCode = "403", description = "Forbidden", content = {
@@ -73,7 +151,7 @@ public interface UserControllerApi {
                     @Content(mediaType = "application/json", schema = @Schema(implementation = ErrorResponse.class)) }),
             @ApiResponse(responseCode = "500", description = "Internal Server Error", content = {
                     @Content(mediaType = "application/json", schema = @Schema(implementation = ErrorResponse.class)) }) })
-    public ResponseEntity<UserResponse> findById(@PathVariable(name = "id") String id, HttpServletRequest request);
+    public ResponseEntity<byte[]> findById(@PathVariable(name = "id") String id, HttpServletRequest request);
 
 
     /**
@@ -83,11 +161,14 @@ public interface UserControllerApi {
      *         or Malformed syntax of the request params (status code 400)
      *         or Forbidden request (status code 403)
      *         or the user not found (status code 404)
+     *         or the If-Match version is not the current one (status code 412)
      *         or Server encountered an unexpected problem (status code 500)
      */
     @Operation(summary = "Update user successfully",
             security = @SecurityRequirement(name = "Auth_Jwt_Token"),
-            parameters = @Parameter(name = "id", in = ParameterIn.PATH, description = "The user id", required = true))
+            parameters = {
+                    @Parameter(name = "id", in = ParameterIn.PATH, description = "The user id", required = true),
+                    @Parameter(name = "If-Match", in = ParameterIn.HEADER, description = "ETag returned by GET /users/{id}; the update only applies to that version") })
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Return user successfully", content = {
                     @Content(mediaType = "application/json", schema = @Schema(implementation = UserResponse.class)) }),
@@ -97,6 +178,8 @@ public interface UserControllerApi {
                     @Content(mediaType = "application/json", schema = @Schema(implementation = ErrorResponse.class)) }),
             @ApiResponse(responseCode = "404", description = "Not found", content = {
                     @Content(mediaType = "application/json", schema = @Schema(implementation = ErrorResponse.class)) }),
+            @ApiResponse(responseCode = "412", description = "Precondition Failed", content = {
+                    @Content(mediaType = "application/json", schema = @Schema(implementation = ErrorResponse.class)) }),
             @ApiResponse(responseCode = "500", description = "Internal Server Error", content = {
                     @Content(mediaType = "application/json", schema = @Schema(implementation = ErrorResponse.class)) }) })
     public ResponseEntity<UserResponse> update(@PathVariable(name = "id") String id,
@@ -107,6 +190,42 @@ public interface UserControllerApi {
                                                        schema = @Schema(implementation = UserDto.class))) @Valid @RequestBody UserDto userDto,
                                                HttpServletRequest request);
 
+    /**
+     * PATCH /users/:id Partially update user with a JSON Merge Patch
+     *
+     * @return Updated user, only the supplied fields are changed (status code 200)
+     *         or Malformed syntax of the request params (status code 400)
+     *         or Forbidden request (status code 403)
+     *         or the user not found (status code 404)
+     *         or the If-Match version is not the current one (status code 412)
+     *         or Server encountered an unexpected problem (status code 500)
+     */
+    @Operation(summary = "Partially update user successfully",
+            security = @SecurityRequirement(name = "Auth_Jwt_Token"),
+            parameters = {
+                    @Parameter(name = "id", in = ParameterIn.PATH, description = "The user id", required = true),
+                    @Parameter(name = "If-Match", in = ParameterIn.HEADER, description = "ETag returned by GET /users/{id}; the update only applies to that version") })
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Return user successfully", content = {
+                    @Content(mediaType = "application/json", schema = @Schema(implementation = UserResponse.class)) }),
+            @ApiResponse(responseCode = "400", description = "Bad Request", content = {
+                    @Content(mediaType = "application/json", schema = @Schema(implementation = ErrorResponse.class)) }),
+            @ApiResponse(responseCode = "403", description = "Forbidden", content = {
+                    @Content(mediaType = "application/json", schema = @Schema(implementation = ErrorResponse.class)) }),
+            @ApiResponse(responseCode = "404", description = "Not found", content = {
+                    @Content(mediaType = "application/json", schema = @Schema(implementation = ErrorResponse.class)) }),
+            @ApiResponse(responseCode = "412", description = "Precondition Failed", content = {
+                    @Content(mediaType = "application/json", schema = @Schema(implementation = ErrorResponse.class)) }),
+            @ApiResponse(responseCode = "500", description = "Internal Server Error", content = {
+                    @Content(mediaType = "application/json", schema = @Schema(implementation = ErrorResponse.class)) }) })
+    public ResponseEntity<UserResponse> patch(@PathVariable(name = "id") String id,
+                                       @io.swagger.v3.oas.annotations.parameters.RequestBody(
+                                               required = true,
+                                               content = @Content(
+                                                       mediaType = MERGE_PATCH_JSON_VALUE,
+                                                       schema = @Schema(implementation = UserPatchDto.class))) @Valid @RequestBody UserPatchDto userPatchDto,
+                                               HttpServletRequest request);
+
 
     /**
      * DELETE /users/:id Delete an user
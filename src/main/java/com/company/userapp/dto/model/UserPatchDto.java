@@ -0,0 +1,46 @@
+package com.company.userapp.dto.model;
+
+import com.company.userapp.validation.Email;
+import com.company.userapp.validation.Password;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import javax.validation.Valid;
+import javax.validation.constraints.Pattern;
+import javax.validation.constraints.Size;
+
+import java.util.Set;
+
+/**
+ * JSON Merge Patch of a user: every field is optional and only the supplied ones are changed.
+ * Since every user field is mandatory, a null member is treated as absent.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+@JsonIgnoreProperties(ignoreUnknown = true)
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class UserPatchDto {
+
+    @Schema(description = "Username", example = "Juan Rodriguez")
+    @Pattern(regexp = "(?s).*\\S.*", message = "name must not be empty")
+    private String name;
+
+    @Schema(description = "User email address", example = "juan@rodriguez.org")
+    @Email(message = "email must have a valid format")
+    private String email;
+
+    @Schema(description = "User password", example = "hunter2")
+    @Password(message = "password must have a valid format")
+    private String password;
+
+    @Schema(description = "Contact information, replacing the current phones")
+    @Valid
+    @Size(min = 1, message = "phones must not be empty")
+    private Set<PhoneDto> phones;
+
+}
@@ -0,0 +1,29 @@
+package com.company.userapp.dto.response;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@AllArgsConstructor
+@NoArgsConstructor
+@Setter
+@Getter
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class BatchUserResponse {
+
+    @Schema(description = "Position of the user in the request", required = true, example = "0")
+    private int index;
+
+    @Schema(description = "Status code the user would have received from POST /users", required = true, example = "201")
+    private int status;
+
+    @Schema(description = "Created user, present when status is 201")
+    private UserResponse user;
+
+    @Schema(description = "Reason the user was not created", example = "Email already registered")
+    private String error;
+
+}
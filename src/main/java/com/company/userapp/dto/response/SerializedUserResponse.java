@@ -0,0 +1,17 @@
+package com.company.userapp.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * A {@link UserResponse} already serialized to UTF-8 JSON, with the entity tag of those bytes.
+ */
+@Getter
+@AllArgsConstructor
+public class SerializedUserResponse {
+
+    private final byte[] body;
+
+    private final String eTag;
+
+}
@@ -0,0 +1,25 @@
+package com.company.userapp.dto.response;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.util.List;
+
+@AllArgsConstructor
+@NoArgsConstructor
+@Setter
+@Getter
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class UserPageResponse {
+
+    @Schema(description = "Users of the page ordered by creation date, without phones nor tokens", required = true)
+    private List<UserResponse> users;
+
+    @Schema(description = "Cursor of the next page, absent on the last page", example = "MTY1NjI1MDY3Mi44NjQwMDAwMDAuYzI0NDM3ZDktNDdiYS00YThiLTliNmMtOGYzYTlkN2VlZDU4")
+    private String next;
+
+}
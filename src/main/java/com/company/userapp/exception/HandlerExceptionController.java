@@ -53,6 +53,19 @@ public class HandlerExceptionController {
 
     }
 
+    @ExceptionHandler(PreconditionFailedException.class)
+    public final ResponseEntity<Object> handlePreconditionFailedException(PreconditionFailedException exception) {
+
+        return ResponseEntity.status(HttpStatus.PRECONDITION_FAILED).body(new ErrorResponse(exception.getMessage()));
+
+    }
+
+    @ExceptionHandler(ServiceUnavailableException.class)
+    public final ResponseEntity<Object> handleServiceUnavailableException(ServiceUnavailableException exception) {
+
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(new ErrorResponse(exception.getMessage()));
+    }
+
     @ExceptionHandler({ InternalServerErrorException.class, Exception.class })
     public final ResponseEntity<Object> handleInternalServerException(Exception exception) {
 
@@ -6,10 +6,18 @@ import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.OnDelete;
+import org.hibernate.annotations.OnDeleteAction;
+import org.hibernate.annotations.Parameter;
 
 import javax.persistence.*;
 
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 @Getter
 @Setter
 @NoArgsConstructor
@@ -17,7 +25,9 @@ import javax.persistence.*;
 public class Phone {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.AUTO)
+    @GeneratedValue(generator = "phone_id_generator")
+    @GenericGenerator(name = "phone_id_generator", strategy = "com.company.userapp.model.PhoneIdGenerator",
+            parameters = @Parameter(name = "sequence_name", value = "phone_sequence"))
     private Integer id;
 
     @Column(nullable = false)
@@ -32,8 +42,20 @@ public class Phone {
     private String countryCode;
 
     @JsonIgnore
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
+    @OnDelete(action = OnDeleteAction.CASCADE)
     @JoinColumn(name = "user_id", referencedColumnName = "id", nullable = false)
     private User user;
 
+    /**
+     * Natural key of a phone within its user: number, city code and country code.
+     */
+    public String naturalKey() {
+        return naturalKey(number, cityCode, countryCode);
+    }
+
+    public static String naturalKey(String number, String cityCode, String countryCode) {
+        return number + '\u0000' + cityCode + '\u0000' + countryCode;
+    }
+
 }
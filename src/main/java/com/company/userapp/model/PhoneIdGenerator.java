@@ -0,0 +1,32 @@
+package com.company.userapp.model;
+
+import org.hibernate.engine.config.spi.ConfigurationService;
+import org.hibernate.id.enhanced.SequenceStyleGenerator;
+import org.hibernate.service.ServiceRegistry;
+import org.hibernate.type.Type;
+
+import java.util.Properties;
+
+/**
+ * Pooled sequence generator for phone ids whose allocation size comes from the Hibernate setting
+ * {@value #ALLOCATION_SIZE_SETTING}: one sequence call reserves that many ids, so the phones of
+ * a user, or of a whole batch of users, are numbered in memory and inserted in a single JDBC batch.
+ * The schema generated for the sequence uses the same increment.
+ */
+public class PhoneIdGenerator extends SequenceStyleGenerator {
+
+    public static final String ALLOCATION_SIZE_SETTING = "userapp.phone.id.allocation-size";
+
+    public static final int DEFAULT_ALLOCATION_SIZE = 50;
+
+    @Override
+    public void configure(Type type, Properties params, ServiceRegistry serviceRegistry) {
+
+        Object allocationSize = serviceRegistry.getService(ConfigurationService.class).getSettings().get(ALLOCATION_SIZE_SETTING);
+        params.setProperty(INCREMENT_PARAM, allocationSize == null
+                ? String.valueOf(DEFAULT_ALLOCATION_SIZE) : allocationSize.toString().trim());
+
+        super.configure(type, params, serviceRegistry);
+    }
+
+}
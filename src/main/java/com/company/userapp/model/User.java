@@ -1,9 +1,13 @@
 package com.company.userapp.model;
 
+import com.company.userapp.security.RegisteredEmailListener;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.GenericGenerator;
 import org.hibernate.annotations.Type;
 
 import javax.persistence.*;
@@ -12,15 +16,23 @@ import java.util.Set;
 import java.util.UUID;
 
 @Entity(name = "app_user")
-@Table(uniqueConstraints = { @UniqueConstraint(name = "unique_email_constraint", columnNames = { "email" }) })
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
+@EntityListeners(RegisteredEmailListener.class)
+@Table(uniqueConstraints = { @UniqueConstraint(name = "unique_email_constraint", columnNames = { "email" }) },
+        indexes = { @Index(name = "user_token_index", columnList = "token"),
+                @Index(name = "user_created_index", columnList = "created, id"),
+                @Index(name = "user_active_created_index", columnList = "active, created, id") })
 @Getter
 @Setter
 @NoArgsConstructor
 public class User {
 
     @Id
-    @GeneratedValue
-    @Type(type = "uuid-char")
+    @GeneratedValue(generator = "user_id_generator")
+    @GenericGenerator(name = "user_id_generator", strategy = "com.company.userapp.model.UserIdGenerator")
+    @Type(type = "uuid-binary")
+    @Column(length = 16)
     private UUID id;
 
     @Column(nullable = false)
@@ -49,7 +61,12 @@ public class User {
     @Column(nullable = false)
     private String token;
 
-    @OneToMany(fetch = FetchType.EAGER, mappedBy = "user", cascade = CascadeType.ALL)
+    @Version
+    @Column(nullable = false)
+    private long version;
+
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
+    @OneToMany(fetch = FetchType.LAZY, mappedBy = "user", cascade = CascadeType.ALL, orphanRemoval = true)
     private Set<Phone> phones;
 
 }
@@ -0,0 +1,39 @@
+package com.company.userapp.model;
+
+import com.company.userapp.util.UUIDUtil;
+import org.hibernate.engine.config.spi.ConfigurationService;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.id.IdentifierGenerator;
+import org.hibernate.service.ServiceRegistry;
+import org.hibernate.type.Type;
+
+import java.io.Serializable;
+import java.util.Properties;
+import java.util.UUID;
+
+/**
+ * Generates user ids, time-ordered by default or random (v4) when the Hibernate setting
+ * {@value #STRATEGY_SETTING} is {@code random}.
+ */
+public class UserIdGenerator implements IdentifierGenerator {
+
+    public static final String STRATEGY_SETTING = "userapp.id.generator";
+
+    public static final String TIME_ORDERED = "time-ordered";
+
+    public static final String RANDOM = "random";
+
+    private boolean random;
+
+    @Override
+    public void configure(Type type, Properties params, ServiceRegistry serviceRegistry) {
+        Object strategy = serviceRegistry.getService(ConfigurationService.class).getSettings().get(STRATEGY_SETTING);
+        this.random = RANDOM.equalsIgnoreCase(strategy == null ? TIME_ORDERED : strategy.toString().trim());
+    }
+
+    @Override
+    public Serializable generate(SharedSessionContractImplementor session, Object object) {
+        return random ? UUID.randomUUID() : UUIDUtil.timeOrdered();
+    }
+
+}
@@ -0,0 +1,42 @@
+package com.company.userapp.model;
+
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import javax.persistence.*;
+import java.time.Instant;
+
+/**
+ * Row of the {@code user_invalidation} table written and polled with plain JDBC by
+ * {@link com.company.userapp.cache.JdbcInvalidationBus}; mapped so the schema is generated with
+ * the rest of the model.
+ */
+@Entity
+@Table(name = "user_invalidation")
+@Getter
+@Setter
+@NoArgsConstructor
+public class UserInvalidationRecord {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private String node;
+
+    @Column(nullable = false)
+    private String type;
+
+    @Column(name = "user_id")
+    private String userId;
+
+    private String token;
+
+    private String email;
+
+    @Column(nullable = false)
+    private Instant created;
+
+}
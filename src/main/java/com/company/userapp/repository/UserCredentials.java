@@ -0,0 +1,20 @@
+package com.company.userapp.repository;
+
+import java.util.UUID;
+
+/**
+ * The columns a login needs, read without the phones.
+ */
+public interface UserCredentials {
+
+    UUID getId();
+
+    String getEmail();
+
+    String getPassword();
+
+    Boolean getActive();
+
+    String getToken();
+
+}
@@ -2,12 +2,32 @@ package com.company.userapp.repository;
 
 import com.company.userapp.model.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import javax.persistence.QueryHint;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
 
 @Repository
-public interface UserRepository extends JpaRepository<User, UUID>  {
+public interface UserRepository extends JpaRepository<User, UUID>, UserRepositoryCustom  {
 
+    @QueryHints(@QueryHint(name = org.hibernate.annotations.QueryHints.CACHEABLE, value = "true"))
     User findByEmail(String email);
+
+    @QueryHints(@QueryHint(name = org.hibernate.annotations.QueryHints.CACHEABLE, value = "true"))
+    Optional<UserCredentials> findCredentialsByEmail(String email);
+
+    @Query("select u.email from app_user u where u.email in :emails")
+    List<String> findRegisteredEmails(@Param("emails") Collection<String> emails);
+
+    @Query("select u.id from app_user u where u.token = :token")
+    Optional<UUID> findIdByToken(@Param("token") String token);
+
+    @Query("select u.token as token, u.version as version, u.modified as modified, u.lastLogin as lastLogin from app_user u where u.id = :id")
+    Optional<UserVersion> findVersionById(@Param("id") UUID id);
 }
@@ -0,0 +1,51 @@
+package com.company.userapp.repository;
+
+import com.company.userapp.model.User;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+public interface UserRepositoryCustom {
+
+    /**
+     * Loads the user with its phones initialized, going through the second-level cache for both
+     * the user and its phone collection, so a warm read issues no query at all.
+     */
+    Optional<User> findWithPhonesById(UUID id);
+
+    /**
+     * Applies the non-null name, email, password and phones of {@code changes}, plus its modified
+     * date, in a single UPDATE of just those columns. The update only applies while the user still
+     * has the given version and token, each when not null. Phones are then diffed, inserting and
+     * deleting only those that changed. Returns the number of users updated.
+     */
+    int updateIfMatches(UUID id, Long version, String token, User changes);
+
+    /**
+     * Replaces the password hash while it still equals {@code current}, so a concurrent password
+     * change is not overwritten by a rehash. Returns the number of users updated.
+     */
+    int updatePassword(UUID id, String current, String password);
+
+    /**
+     * Deletes the user only when it still holds the given token. Returns the number of users deleted.
+     */
+    int deleteByIdAndToken(UUID id, String token);
+
+    /**
+     * Inserts new users and their phones with one JDBC batch per table, bypassing the persistence
+     * context. Missing user ids come from the user id generator and phone ids are drawn from the
+     * phone sequence, so both stay consistent with the ones Hibernate assigns.
+     */
+    void insertAll(List<User> users);
+
+    /**
+     * Returns up to {@code limit} users ordered by creation date and id, starting right after the
+     * given position when it is not null (keyset pagination), optionally filtered by active flag
+     * and email prefix. Phones are not loaded.
+     */
+    List<User> findPage(Instant created, UUID id, Boolean active, String emailPrefix, int limit);
+
+}
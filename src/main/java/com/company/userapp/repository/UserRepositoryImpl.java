@@ -0,0 +1,296 @@
+package com.company.userapp.repository;
+
+import com.company.userapp.model.Phone;
+import com.company.userapp.model.User;
+import com.company.userapp.util.UUIDUtil;
+import org.hibernate.Cache;
+import org.hibernate.Hibernate;
+import org.hibernate.annotations.QueryHints;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.id.IdentifierGenerator;
+import org.hibernate.query.NativeQuery;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.persistence.Query;
+import javax.persistence.TypedQuery;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+
+public class UserRepositoryImpl implements UserRepositoryCustom {
+
+    private static final String INSERT_USER = "insert into app_user (id, name, email, password, created, modified, "
+            + "last_login, active, token, version) values (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private static final String INSERT_PHONE = "insert into phone (id, number, city_code, country_code, user_id) "
+            + "values (?, ?, ?, ?, ?)";
+
+    private static final String ROW_STATEMENT_SPACE = "app_user_row";
+
+    private static final String PHONES_ROLE = User.class.getName() + ".phones";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public UserRepositoryImpl(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Optional<User> findWithPhonesById(UUID id) {
+
+        User user = entityManager.find(User.class, id);
+        if ( user != null ) {
+            Hibernate.initialize(user.getPhones());
+        }
+        return Optional.ofNullable(user);
+    }
+
+    @Override
+    @Transactional
+    public int updateIfMatches(UUID id, Long version, String token, User changes) {
+
+        StringBuilder sql = new StringBuilder("update app_user set modified = :modified, version = version + 1");
+        if ( changes.getName() != null ) {
+            sql.append(", name = :name");
+        }
+        if ( changes.getEmail() != null ) {
+            sql.append(", email = :email");
+        }
+        if ( changes.getPassword() != null ) {
+            sql.append(", password = :password");
+        }
+        sql.append(" where id = :id");
+        if ( version != null ) {
+            sql.append(" and version = :version");
+        }
+        if ( token != null ) {
+            sql.append(" and token = :token");
+        }
+
+        Query update = rowStatement(sql.toString())
+                .setParameter("modified", Timestamp.from(changes.getModified()))
+                .setParameter("id", UUIDUtil.toBytes(id));
+        if ( changes.getName() != null ) {
+            update.setParameter("name", changes.getName());
+        }
+        if ( changes.getEmail() != null ) {
+            update.setParameter("email", changes.getEmail());
+        }
+        if ( changes.getPassword() != null ) {
+            update.setParameter("password", changes.getPassword());
+        }
+        if ( version != null ) {
+            update.setParameter("version", version);
+        }
+        if ( token != null ) {
+            update.setParameter("token", token);
+        }
+
+        int updated = update.executeUpdate();
+        if ( updated == 0 ) {
+            return updated;
+        }
+        if ( changes.getPhones() == null ) {
+            evictUser(id, List.of());
+            return updated;
+        }
+
+        List<Object[]> existing = entityManager.createQuery(
+                        "select p.id, p.number, p.cityCode, p.countryCode from Phone p where p.user.id = :id", Object[].class)
+                .setParameter("id", id)
+                .getResultList();
+
+        Set<String> requested = new HashSet<>();
+        changes.getPhones().forEach(phone -> requested.add(phone.naturalKey()));
+
+        Set<String> kept = new HashSet<>();
+        List<Integer> removed = new ArrayList<>();
+        for ( Object[] phone : existing ) {
+            String key = Phone.naturalKey((String) phone[1], (String) phone[2], (String) phone[3]);
+            if ( !requested.contains(key) || !kept.add(key) ) {
+                removed.add((Integer) phone[0]);
+            }
+        }
+
+        if ( !removed.isEmpty() ) {
+            rowStatement("delete from phone where id in (:ids)")
+                    .setParameter("ids", removed)
+                    .executeUpdate();
+        }
+        evictUser(id, removed);
+
+        User reference = entityManager.getReference(User.class, id);
+        for ( Phone phone : changes.getPhones() ) {
+            if ( kept.add(phone.naturalKey()) ) {
+                phone.setUser(reference);
+                entityManager.persist(phone);
+            }
+        }
+
+        return updated;
+    }
+
+    @Override
+    @Transactional
+    public int updatePassword(UUID id, String current, String password) {
+
+        int updated = rowStatement("update app_user set password = :password where id = :id and password = :current")
+                .setParameter("password", password)
+                .setParameter("id", UUIDUtil.toBytes(id))
+                .setParameter("current", current)
+                .executeUpdate();
+        if ( updated > 0 ) {
+            evictUser(id, List.of());
+        }
+        return updated;
+    }
+
+    @Override
+    @Transactional
+    public int deleteByIdAndToken(UUID id, String token) {
+
+        // phones go with the user through the foreign key's on delete cascade
+        int deleted = rowStatement("delete from app_user where id = :id and token = :token")
+                .setParameter("id", UUIDUtil.toBytes(id))
+                .setParameter("token", token)
+                .executeUpdate();
+        if ( deleted > 0 ) {
+            evictUser(id, List.of());
+        }
+        return deleted;
+    }
+
+    @Override
+    @Transactional
+    public void insertAll(List<User> users) {
+
+        SharedSessionContractImplementor session = entityManager.unwrap(SharedSessionContractImplementor.class);
+        IdentifierGenerator userIds = session.getFactory().getMetamodel()
+                .entityPersister(User.class).getIdentifierGenerator();
+        IdentifierGenerator phoneIds = session.getFactory().getMetamodel()
+                .entityPersister(Phone.class).getIdentifierGenerator();
+
+        List<Object[]> userRows = new ArrayList<>(users.size());
+        List<Object[]> phoneRows = new ArrayList<>();
+        for ( User user : users ) {
+            if ( user.getId() == null ) {
+                user.setId((UUID) userIds.generate(session, user));
+            }
+            byte[] userId = UUIDUtil.toBytes(user.getId());
+            userRows.add(new Object[] { userId, user.getName(), user.getEmail(), user.getPassword(),
+                    Timestamp.from(user.getCreated()), Timestamp.from(user.getModified()),
+                    Timestamp.from(user.getLastLogin()), user.getActive(), user.getToken(), user.getVersion() });
+
+            if ( user.getPhones() == null ) {
+                continue;
+            }
+            for ( Phone phone : user.getPhones() ) {
+                phone.setId(((Number) phoneIds.generate(session, phone)).intValue());
+                phone.setUser(user);
+                phoneRows.add(new Object[] { phone.getId(), phone.getNumber(), phone.getCityCode(),
+                        phone.getCountryCode(), userId });
+            }
+        }
+
+        jdbcTemplate.batchUpdate(INSERT_USER, userRows);
+        if ( !phoneRows.isEmpty() ) {
+            jdbcTemplate.batchUpdate(INSERT_PHONE, phoneRows);
+        }
+
+        // plain JDBC writes are invisible to Hibernate, so drop cached query results such as an
+        // empty findByEmail for one of these emails
+        session.getFactory().getCache().evictQueryRegions();
+    }
+
+    @Override
+    public List<User> findPage(Instant created, UUID id, Boolean active, String emailPrefix, int limit) {
+
+        List<String> predicates = new ArrayList<>(3);
+        if ( created != null ) {
+            // the leading range on created lets the (created, id) index seek straight to the page
+            predicates.add("u.created >= :created and (u.created > :created or u.id > :id)");
+        }
+        if ( active != null ) {
+            predicates.add("u.active = :active");
+        }
+        if ( emailPrefix != null ) {
+            predicates.add("u.email like :emailPrefix escape '\\'");
+        }
+
+        StringBuilder jpql = new StringBuilder("select u from app_user u");
+        if ( !predicates.isEmpty() ) {
+            jpql.append(" where ").append(String.join(" and ", predicates));
+        }
+        // with the active filter the constant leading column must be part of the order for the
+        // (active, created, id) index to return rows already sorted
+        jpql.append(active != null ? " order by u.active, u.created, u.id" : " order by u.created, u.id");
+
+        TypedQuery<User> page = entityManager.createQuery(jpql.toString(), User.class)
+                .setHint(QueryHints.READ_ONLY, true)
+                .setMaxResults(limit);
+        if ( created != null ) {
+            page.setParameter("created", created).setParameter("id", id);
+        }
+        if ( active != null ) {
+            page.setParameter("active", active);
+        }
+        if ( emailPrefix != null ) {
+            page.setParameter("emailPrefix", emailPrefix.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_") + "%");
+        }
+
+        return page.getResultList();
+    }
+
+    /**
+     * A native statement on the rows of one user. Hibernate empties every cache region of the
+     * tables a bulk statement touches, so a JPQL update of one user would drop the cached entries
+     * of all users; declaring a query space no entity maps to leaves the regions alone and the
+     * caller evicts just the rows it changed with {@link #evictUser}.
+     */
+    private Query rowStatement(String sql) {
+        return entityManager.createNativeQuery(sql)
+                .unwrap(NativeQuery.class)
+                .addSynchronizedQuerySpace(ROW_STATEMENT_SPACE);
+    }
+
+    /**
+     * Evicts the user, its phone collection, the given phones and the cached query results, now and
+     * again once the transaction completes, so a read racing the commit cannot re-cache old rows.
+     */
+    private void evictUser(UUID id, Collection<Integer> phoneIds) {
+
+        Cache cache = entityManager.getEntityManagerFactory().getCache().unwrap(Cache.class);
+        Runnable evict = () -> {
+            cache.evictEntityData(User.class, id);
+            cache.evictCollectionData(PHONES_ROLE, id);
+            phoneIds.forEach(phoneId -> cache.evictEntityData(Phone.class, phoneId));
+            cache.evictQueryRegions();
+        };
+
+        evict.run();
+        if ( TransactionSynchronizationManager.isSynchronizationActive() ) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    evict.run();
+                }
+            });
+        }
+    }
+
+}
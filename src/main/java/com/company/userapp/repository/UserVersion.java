@@ -0,0 +1,18 @@
+package com.company.userapp.repository;
+
+import java.time.Instant;
+
+/**
+ * The columns needed to authorize a read and compute the user ETag, without loading phones.
+ */
+public interface UserVersion {
+
+    String getToken();
+
+    long getVersion();
+
+    Instant getModified();
+
+    Instant getLastLogin();
+
+}
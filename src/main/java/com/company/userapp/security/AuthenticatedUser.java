@@ -0,0 +1,29 @@
+package com.company.userapp.security;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.security.Principal;
+import java.util.UUID;
+
+@Getter
+@AllArgsConstructor
+public class AuthenticatedUser implements Principal {
+
+    private final UUID id;
+
+    private final String email;
+
+    private final String token;
+
+    @Override
+    public String getName() {
+        return email;
+    }
+
+    @Override
+    public String toString() {
+        return email;
+    }
+
+}
@@ -0,0 +1,43 @@
+package com.company.userapp.security;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.time.Duration;
+
+/**
+ * Picks the highest BCrypt cost whose hashing time on the current hardware stays within a latency
+ * budget. The time is measured once at the minimum cost and extrapolated, since every extra cost
+ * unit doubles the work.
+ */
+@Slf4j
+public final class BCryptStrengthCalibrator {
+
+    private static final String SAMPLE_PASSWORD = "calibration-sample-password";
+
+    private BCryptStrengthCalibrator() {
+
+    }
+
+    public static int calibrate(Duration budget, int minStrength, int maxStrength) {
+
+        BCryptPasswordEncoder encoder = new BCryptPasswordEncoder(minStrength);
+        encoder.encode(SAMPLE_PASSWORD);
+
+        long start = System.nanoTime();
+        encoder.encode(SAMPLE_PASSWORD);
+        long elapsed = Math.max(1, System.nanoTime() - start);
+
+        int strength = minStrength;
+        while ( strength < maxStrength && elapsed * 2 <= budget.toNanos() ) {
+            elapsed *= 2;
+            strength++;
+        }
+
+        log.info("BCrypt strength calibrated to {} (~{} ms per hash, budget {} ms)",
+                strength, Duration.ofNanos(elapsed).toMillis(), budget.toMillis());
+
+        return strength;
+    }
+
+}
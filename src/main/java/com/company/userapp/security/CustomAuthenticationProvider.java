@@ -1,28 +1,49 @@
 package com.company.userapp.security;
 
-import com.company.userapp.model.User;
+import com.company.userapp.exception.ServiceUnavailableException;
+import com.company.userapp.repository.UserCredentials;
 import com.company.userapp.repository.UserRepository;
+import com.company.userapp.service.LastLoginRecorder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.task.TaskExecutionAutoConfiguration;
 import org.springframework.security.authentication.AuthenticationProvider;
+import org.springframework.security.authentication.AuthenticationServiceException;
 import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.AuthenticationException;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.stereotype.Component;
 
 import java.time.Instant;
 import java.util.ArrayList;
+import java.util.UUID;
+import java.util.concurrent.Executor;
 
+@Slf4j
 @Component
 public class CustomAuthenticationProvider implements AuthenticationProvider {
 
     private UserRepository userRepository;
 
-    private BCryptPasswordEncoder passwordEncoder;
+    private PasswordHasher passwordHasher;
 
-    public CustomAuthenticationProvider(UserRepository userRepository, BCryptPasswordEncoder passwordEncoder) {
+    private LastLoginRecorder lastLoginRecorder;
+
+    private RegisteredEmailFilter registeredEmailFilter;
+
+    private Executor rehashWriter;
+
+    private volatile String dummyHash;
+
+    public CustomAuthenticationProvider(UserRepository userRepository, PasswordHasher passwordHasher,
+                                        LastLoginRecorder lastLoginRecorder, RegisteredEmailFilter registeredEmailFilter,
+                                        @Qualifier(TaskExecutionAutoConfiguration.APPLICATION_TASK_EXECUTOR_BEAN_NAME) Executor rehashWriter) {
         this.userRepository = userRepository;
-        this.passwordEncoder = passwordEncoder;
+        this.passwordHasher = passwordHasher;
+        this.lastLoginRecorder = lastLoginRecorder;
+        this.registeredEmailFilter = registeredEmailFilter;
+        this.rehashWriter = rehashWriter;
     }
 
 
@@ -36,19 +57,68 @@ public class CustomAuthenticationProvider implements AuthenticationProvider {
             throw new BadCredentialsException("Authentication failed");
         }
 
-        User user = userRepository.findByEmail(username);
+        if( !registeredEmailFilter.mightContain(username) ) {
+            throw rejectUnknownUser(password);
+        }
+
+        UserCredentials user = userRepository.findCredentialsByEmail(username).orElse(null);
         if( user == null ) {
-            throw new BadCredentialsException("Authentication failed");
-        } else if( passwordEncoder.matches(password, user.getPassword()) && user.getActive() ) {
+            throw rejectUnknownUser(password);
+        } else if( matches(password, user.getPassword()) && user.getActive() ) {
 
-            user.setLastLogin(Instant.now());
-            userRepository.save(user);
-            return new UsernamePasswordAuthenticationToken(username, password, new ArrayList<>());
+            lastLoginRecorder.record(user.getId(), Instant.now());
+            upgradeEncoding(user, password);
+            return new UsernamePasswordAuthenticationToken(
+                    new AuthenticatedUser(user.getId(), user.getEmail(), user.getToken()), password, new ArrayList<>());
         } else {
             throw new BadCredentialsException("Authentication failed");
         }
     }
 
+    /**
+     * Spends one password hash before rejecting an unknown email, so the response takes about as
+     * long as a wrong password for an existing user.
+     */
+    private AuthenticationException rejectUnknownUser(String password) {
+
+        String hash = dummyHash;
+        if ( hash == null ) {
+            hash = passwordHasher.encode(UUID.randomUUID().toString());
+            dummyHash = hash;
+        }
+
+        matches(password, hash);
+        return new BadCredentialsException("Authentication failed");
+    }
+
+    /**
+     * Re-hashes a password stored with an outdated encoding on the hashing pool and writes it from
+     * the application task executor, so the JDBC round trip never holds a hashing thread.
+     */
+    private void upgradeEncoding(UserCredentials user, String password) {
+
+        if ( !passwordHasher.upgradeEncoding(user.getPassword()) ) {
+            return;
+        }
+
+        UUID id = user.getId();
+        String current = user.getPassword();
+        passwordHasher.encodeAsync(password)
+                .thenAcceptAsync(encoded -> userRepository.updatePassword(id, current, encoded), rehashWriter)
+                .exceptionally(e -> {
+                    log.warn("Unable to upgrade the password hash of user {}", id, e);
+                    return null;
+                });
+    }
+
+    private boolean matches(String password, String encodedPassword) {
+        try {
+            return passwordHasher.matches(password, encodedPassword);
+        } catch (ServiceUnavailableException e) {
+            throw new AuthenticationServiceException(e.getMessage(), e);
+        }
+    }
+
     @Override
     public boolean supports(Class<?> authentication) {
         return authentication.equals(UsernamePasswordAuthenticationToken.class);
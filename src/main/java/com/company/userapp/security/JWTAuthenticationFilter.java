@@ -1,16 +1,15 @@
 package com.company.userapp.security;
 
 import com.company.userapp.dto.model.AppUserDto;
-import com.company.userapp.model.User;
-import com.company.userapp.repository.UserRepository;
+import com.company.userapp.exception.ServiceUnavailableException;
 import com.company.userapp.util.JWTUtil;
 import com.fasterxml.jackson.databind.ObjectMapper;
-import io.jsonwebtoken.Claims;
-import io.jsonwebtoken.Jwts;
+import com.fasterxml.jackson.databind.ObjectReader;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.AuthenticationException;
+import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
 import org.springframework.security.web.util.matcher.AntPathRequestMatcher;
 
@@ -25,19 +24,23 @@ public class JWTAuthenticationFilter  extends UsernamePasswordAuthenticationFilt
 
     private final AuthenticationManager authenticationManager;
 
-    private UserRepository userRepository;
+    private final ObjectReader appUserReader;
 
-    public JWTAuthenticationFilter(String pattern, AuthenticationManager authenticationManager, UserRepository userRepository) {
+    private TokenOwnerCache ownerCache;
+
+    public JWTAuthenticationFilter(String pattern, AuthenticationManager authenticationManager, ObjectMapper objectMapper,
+                                   TokenOwnerCache ownerCache) {
         this.authenticationManager = authenticationManager;
         this.setRequiresAuthenticationRequestMatcher(new AntPathRequestMatcher(pattern, "POST"));
-        this.userRepository = userRepository;
+        this.appUserReader = objectMapper.readerFor(AppUserDto.class);
+        this.ownerCache = ownerCache;
     }
 
     @Override
     public Authentication attemptAuthentication(HttpServletRequest request,
                                                 HttpServletResponse response) throws AuthenticationException {
         try {
-            AppUserDto user = new ObjectMapper().readValue(request.getInputStream(), AppUserDto.class);
+            AppUserDto user = appUserReader.readValue(request.getInputStream());
 
             return authenticationManager.authenticate(
                     new UsernamePasswordAuthenticationToken(user.getEmail(), user.getPassword(), new ArrayList<>()));
@@ -52,14 +55,28 @@ public class JWTAuthenticationFilter  extends UsernamePasswordAuthenticationFilt
                                             FilterChain chain,
                                             Authentication auth) {
 
-        if ( auth.getPrincipal() != null ) {
-            String email = auth.getPrincipal().toString();
-            User userByEmail = userRepository.findByEmail(email);
+        if ( auth.getPrincipal() instanceof AuthenticatedUser ) {
+            AuthenticatedUser user = (AuthenticatedUser) auth.getPrincipal();
 
-            if ( userByEmail != null  && !userByEmail.getEmail().isEmpty() ) {
-                response.addHeader(JWTUtil.HEADER_AUTHORIZATION, JWTUtil.TOKEN_PREFIX + userByEmail.getToken());
+            if ( user.getToken() != null && !user.getToken().isEmpty() ) {
+                ownerCache.put(user.getToken(), user.getId());
+                response.addHeader(JWTUtil.HEADER_AUTHORIZATION, JWTUtil.TOKEN_PREFIX + user.getToken());
             }
         }
     }
 
+    @Override
+    protected void unsuccessfulAuthentication(HttpServletRequest request,
+                                              HttpServletResponse response,
+                                              AuthenticationException failed) throws IOException, ServletException {
+
+        if ( failed.getCause() instanceof ServiceUnavailableException ) {
+            SecurityContextHolder.clearContext();
+            response.sendError(HttpServletResponse.SC_SERVICE_UNAVAILABLE, failed.getMessage());
+            return;
+        }
+
+        super.unsuccessfulAuthentication(request, response, failed);
+    }
+
 }
@@ -1,8 +1,6 @@
 package com.company.userapp.security;
 
 import com.company.userapp.util.JWTUtil;
-import io.jsonwebtoken.Claims;
-import io.jsonwebtoken.Jwts;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
@@ -17,11 +15,14 @@ import java.util.ArrayList;
 
 public class JWTAuthorizationFilter extends BasicAuthenticationFilter {
 
-    private String secret;
+    private JwtTokenCodec tokenCodec;
 
-    public JWTAuthorizationFilter(AuthenticationManager authenticationManager, String secret) {
+    private VerifiedTokenCache tokenCache;
+
+    public JWTAuthorizationFilter(AuthenticationManager authenticationManager, JwtTokenCodec tokenCodec, VerifiedTokenCache tokenCache) {
         super(authenticationManager);
-        this.secret = secret;
+        this.tokenCodec = tokenCodec;
+        this.tokenCache = tokenCache;
     }
 
     @Override
@@ -41,14 +42,18 @@ public class JWTAuthorizationFilter extends BasicAuthenticationFilter {
     }
 
     private UsernamePasswordAuthenticationToken getAuthentication(HttpServletRequest request) {
-        String token = request.getHeader(JWTUtil.HEADER_AUTHORIZATION);
-        if ( token != null ) {
-            Claims claims = Jwts.parser()
-                    .setSigningKey(secret)
-                    .parseClaimsJws(token.replace(JWTUtil.TOKEN_PREFIX, ""))
-                    .getBody();
-
-            String user = claims.getSubject();
+        String header = request.getHeader(JWTUtil.HEADER_AUTHORIZATION);
+        if ( header != null ) {
+            String token = header.replace(JWTUtil.TOKEN_PREFIX, "");
+            String user = tokenCache.getSubject(token);
+
+            if ( user == null ) {
+                user = tokenCodec.verify(token);
+
+                if ( user != null ) {
+                    tokenCache.put(token, user);
+                }
+            }
 
             if (user != null) {
                 return new UsernamePasswordAuthenticationToken(user, null, new ArrayList<>());
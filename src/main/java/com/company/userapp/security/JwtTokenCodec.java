@@ -0,0 +1,172 @@
+package com.company.userapp.security;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.MalformedJwtException;
+import io.jsonwebtoken.PrematureJwtException;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.SignatureException;
+import io.jsonwebtoken.UnsupportedJwtException;
+import io.jsonwebtoken.impl.TextCodec;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.Mac;
+import javax.crypto.SecretKey;
+import javax.crypto.spec.SecretKeySpec;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * HS512 JWT signer and verifier built once from {@code user.secret.token}. Tokens are
+ * wire-compatible with the ones issued by jjwt; the key is derived a single time and each
+ * thread reuses its own {@link Mac} cloned from an initialised template.
+ */
+@Component
+public class JwtTokenCodec {
+
+    private static final Base64.Encoder BASE64_URL_ENCODER = Base64.getUrlEncoder().withoutPadding();
+
+    private static final Base64.Decoder BASE64_URL_DECODER = Base64.getUrlDecoder();
+
+    private static final SignatureAlgorithm ALGORITHM = SignatureAlgorithm.HS512;
+
+    private final ObjectMapper objectMapper;
+
+    private final String encodedHeader;
+
+    private final SecretKey key;
+
+    private final Mac macTemplate;
+
+    private final ThreadLocal<Mac> mac;
+
+    @Autowired
+    public JwtTokenCodec(Environment environment, ObjectMapper objectMapper) {
+        this(environment.getProperty("user.secret.token", "SECRET_TOKEN_DEMO"), objectMapper);
+    }
+
+    public JwtTokenCodec(String secret, ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+        this.encodedHeader = BASE64_URL_ENCODER.encodeToString(
+                ("{\"alg\":\"" + ALGORITHM.getValue() + "\"}").getBytes(StandardCharsets.UTF_8));
+
+        this.key = new SecretKeySpec(TextCodec.BASE64.decode(secret), ALGORITHM.getJcaName());
+        try {
+            this.macTemplate = Mac.getInstance(ALGORITHM.getJcaName());
+            this.macTemplate.init(key);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Unable to initialize the token signing key", e);
+        }
+        this.mac = ThreadLocal.withInitial(this::newMac);
+    }
+
+    public String sign(String subject) {
+
+        Map<String, Object> claims = new LinkedHashMap<>(4);
+        claims.put("sub", subject);
+        claims.put("iat", System.currentTimeMillis() / 1000);
+
+        String signingInput;
+        try {
+            signingInput = encodedHeader + '.' + BASE64_URL_ENCODER.encodeToString(objectMapper.writeValueAsBytes(claims));
+        } catch (IOException e) {
+            throw new IllegalStateException("Unable to serialize token claims", e);
+        }
+
+        return signingInput + '.' + BASE64_URL_ENCODER.encodeToString(signature(signingInput));
+    }
+
+    /**
+     * Verifies the token signature and temporal claims and returns the token subject.
+     *
+     * @throws io.jsonwebtoken.JwtException if the token is malformed, unsigned, tampered or expired
+     */
+    public String verify(String token) {
+
+        int headerEnd = token.indexOf('.');
+        int payloadEnd = headerEnd < 0 ? -1 : token.indexOf('.', headerEnd + 1);
+        if ( headerEnd <= 0 || payloadEnd < 0 || token.indexOf('.', payloadEnd + 1) >= 0 ) {
+            throw new MalformedJwtException("JWT strings must contain exactly 2 period characters");
+        }
+
+        if ( !token.regionMatches(0, encodedHeader, 0, headerEnd) || headerEnd != encodedHeader.length() ) {
+            verifyHeader(token.substring(0, headerEnd));
+        }
+
+        byte[] expected = signature(token.substring(0, payloadEnd));
+        byte[] actual;
+        try {
+            actual = BASE64_URL_DECODER.decode(token.substring(payloadEnd + 1));
+        } catch (IllegalArgumentException e) {
+            throw new MalformedJwtException("Invalid JWT signature encoding", e);
+        }
+
+        if ( !MessageDigest.isEqual(expected, actual) ) {
+            throw new SignatureException("JWT signature does not match locally computed signature");
+        }
+
+        JsonNode claims = readJson(token.substring(headerEnd + 1, payloadEnd));
+        long now = System.currentTimeMillis() / 1000;
+        if ( claims.hasNonNull("exp") && now >= claims.get("exp").asLong() ) {
+            throw new ExpiredJwtException(null, null, "JWT expired");
+        }
+        if ( claims.hasNonNull("nbf") && now < claims.get("nbf").asLong() ) {
+            throw new PrematureJwtException(null, null, "JWT must not be accepted before its nbf claim");
+        }
+
+        JsonNode subject = claims.get("sub");
+        return subject == null || subject.isNull() ? null : subject.asText();
+    }
+
+    private void verifyHeader(String encoded) {
+
+        JsonNode header = readJson(encoded);
+        if ( !ALGORITHM.getValue().equals(header.path("alg").asText()) ) {
+            throw new UnsupportedJwtException("Only " + ALGORITHM.getValue() + " signed tokens are supported");
+        }
+        if ( header.has("zip") || header.has("crit") ) {
+            throw new UnsupportedJwtException("Compressed or critical JWT headers are not supported");
+        }
+    }
+
+    private JsonNode readJson(String encoded) {
+        try {
+            JsonNode node = objectMapper.readTree(BASE64_URL_DECODER.decode(encoded));
+            if ( node == null || !node.isObject() ) {
+                throw new MalformedJwtException("JWT segment is not a JSON object");
+            }
+            return node;
+        } catch (IOException | IllegalArgumentException e) {
+            throw new MalformedJwtException("Unable to read JWT segment", e);
+        }
+    }
+
+    private byte[] signature(String signingInput) {
+        Mac current = mac.get();
+        current.reset();
+        return current.doFinal(signingInput.getBytes(StandardCharsets.US_ASCII));
+    }
+
+    private Mac newMac() {
+        try {
+            return (Mac) macTemplate.clone();
+        } catch (CloneNotSupportedException e) {
+            try {
+                Mac instance = Mac.getInstance(ALGORITHM.getJcaName());
+                instance.init(key);
+                return instance;
+            } catch (GeneralSecurityException ex) {
+                throw new IllegalStateException("Unable to create token MAC", ex);
+            }
+        }
+    }
+
+}
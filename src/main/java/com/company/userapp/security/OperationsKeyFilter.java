@@ -0,0 +1,49 @@
+package com.company.userapp.security;
+
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.List;
+
+/**
+ * Authenticates operations jobs such as the warehouse export by the key configured in
+ * {@code user.operations.key}, sent in the {@value #HEADER_OPERATIONS_KEY} header. The key grants
+ * the {@value #OPERATIONS_AUTHORITY} authority, which user tokens never carry; without a
+ * configured key no request is granted it.
+ */
+public class OperationsKeyFilter extends OncePerRequestFilter {
+
+    public static final String HEADER_OPERATIONS_KEY = "X-Operations-Key";
+
+    public static final String OPERATIONS_AUTHORITY = "OPERATIONS";
+
+    private final byte[] key;
+
+    public OperationsKeyFilter(String key) {
+        this.key = key == null || key.isBlank() ? null : key.getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request,
+                                    HttpServletResponse response,
+                                    FilterChain chain) throws IOException, ServletException {
+
+        String header = request.getHeader(HEADER_OPERATIONS_KEY);
+        if ( key != null && header != null && MessageDigest.isEqual(key, header.getBytes(StandardCharsets.UTF_8)) ) {
+            SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken(
+                    "operations", null, List.of(new SimpleGrantedAuthority(OPERATIONS_AUTHORITY))));
+        }
+
+        chain.doFilter(request, response);
+    }
+
+}
@@ -0,0 +1,143 @@
+package com.company.userapp.security;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.event.ContextRefreshedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Bloom filter over the lower-cased emails of every registered user. A negative answer means the
+ * email was never registered, so logins for it can be rejected without querying the database;
+ * a positive answer may be a false positive and must be confirmed against the database.
+ * Emails are never removed, deleted users only add to the false positive rate until restart.
+ */
+@Slf4j
+@Component
+public class RegisteredEmailFilter {
+
+    private final AtomicLongArray bits;
+
+    private final int bitCount;
+
+    private final int hashCount;
+
+    private ObjectProvider<JdbcTemplate> jdbcTemplate;
+
+    private volatile boolean loaded;
+
+    /**
+     * The JDBC template is resolved lazily because Hibernate creates the entity listener, and with
+     * it this filter, while the entity manager factory the template depends on is being built.
+     */
+    @Autowired
+    public RegisteredEmailFilter(Environment environment, ObjectProvider<JdbcTemplate> jdbcTemplate) {
+        this(environment.getProperty("user.login.email-filter.expected-insertions", Integer.class, 100000),
+                environment.getProperty("user.login.email-filter.false-positive-rate", Double.class, 0.01));
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    RegisteredEmailFilter(int expectedInsertions, double falsePositiveRate) {
+        long bits = (long) Math.ceil(-Math.max(1, expectedInsertions) * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2)));
+        this.bitCount = (int) Math.min(Integer.MAX_VALUE - 63, Math.max(64, bits));
+        this.hashCount = Math.max(1, (int) Math.round((double) bitCount / Math.max(1, expectedInsertions) * Math.log(2)));
+        this.bits = new AtomicLongArray((bitCount + 63) / 64);
+    }
+
+    /**
+     * Loads the emails already stored once the schema exists. Until then every email is reported
+     * as possibly registered.
+     */
+    @EventListener(ContextRefreshedEvent.class)
+    public void load() {
+
+        if ( loaded || jdbcTemplate == null ) {
+            return;
+        }
+
+        jdbcTemplate.getObject().query("SELECT email FROM app_user", rs -> {
+            add(rs.getString(1));
+        });
+        markLoaded();
+        log.info("Registered email filter loaded ({} bits, {} hashes)", bitCount, hashCount);
+    }
+
+    public void add(String email) {
+
+        if ( email == null ) {
+            return;
+        }
+
+        long hash = hash(email);
+        int first = (int) hash;
+        int second = (int) (hash >>> 32);
+        for ( int i = 1; i <= hashCount; i++ ) {
+            setBit(index(first + i * second));
+        }
+    }
+
+    public boolean mightContain(String email) {
+
+        if ( !loaded ) {
+            return true;
+        }
+
+        long hash = hash(email);
+        int first = (int) hash;
+        int second = (int) (hash >>> 32);
+        for ( int i = 1; i <= hashCount; i++ ) {
+            int index = index(first + i * second);
+            if ( (bits.get(index >>> 6) & (1L << index)) == 0 ) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    void markLoaded() {
+        loaded = true;
+    }
+
+    private int index(int combined) {
+        return (combined & Integer.MAX_VALUE) % bitCount;
+    }
+
+    private void setBit(int index) {
+
+        int word = index >>> 6;
+        long mask = 1L << index;
+        long current;
+        do {
+            current = bits.get(word);
+            if ( (current & mask) != 0 ) {
+                return;
+            }
+        } while ( !bits.compareAndSet(word, current, current | mask) );
+    }
+
+    /**
+     * 64-bit FNV-1a over the lower-cased characters, finished with the MurmurHash3 mixer so both
+     * halves can seed the double hashing.
+     */
+    private static long hash(String email) {
+
+        long hash = 0xcbf29ce484222325L;
+        for ( int i = 0; i < email.length(); i++ ) {
+            hash ^= Character.toLowerCase(email.charAt(i));
+            hash *= 0x100000001b3L;
+        }
+
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+
+}
@@ -0,0 +1,26 @@
+package com.company.userapp.security;
+
+import com.company.userapp.model.User;
+
+import javax.persistence.PostPersist;
+import javax.persistence.PostUpdate;
+
+/**
+ * Adds the email of every inserted or updated user to the {@link RegisteredEmailFilter}, whatever
+ * path the write takes. Instantiated by Hibernate through the Spring bean container.
+ */
+public class RegisteredEmailListener {
+
+    private final RegisteredEmailFilter registeredEmailFilter;
+
+    public RegisteredEmailListener(RegisteredEmailFilter registeredEmailFilter) {
+        this.registeredEmailFilter = registeredEmailFilter;
+    }
+
+    @PostPersist
+    @PostUpdate
+    public void register(User user) {
+        registeredEmailFilter.add(user.getEmail());
+    }
+
+}
@@ -0,0 +1,57 @@
+package com.company.userapp.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+import java.util.UUID;
+
+/**
+ * Bounded map from an issued bearer token to the id of the user that owns it, used to authorize
+ * requests from the security context without loading the user. Backed by Caffeine, so concurrent
+ * requests read it without sharing a lock.
+ */
+@Component
+public class TokenOwnerCache {
+
+    private final int maxSize;
+
+    private final Cache<String, UUID> owners;
+
+    @Autowired
+    public TokenOwnerCache(Environment environment) {
+        this(environment.getProperty("user.authorization.cache.max-size", Integer.class, 10000));
+    }
+
+    TokenOwnerCache(int maxSize) {
+        this.maxSize = maxSize;
+        this.owners = Caffeine.newBuilder()
+                .maximumSize(Math.max(0, maxSize))
+                .build();
+    }
+
+    public UUID get(String token) {
+        return owners.getIfPresent(token);
+    }
+
+    public void put(String token, UUID id) {
+
+        if ( token == null || id == null || maxSize <= 0 ) {
+            return;
+        }
+
+        owners.put(token, id);
+    }
+
+    public void invalidate(String token) {
+
+        if ( token == null ) {
+            return;
+        }
+
+        owners.invalidate(token);
+    }
+
+}
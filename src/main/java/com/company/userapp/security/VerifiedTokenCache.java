@@ -0,0 +1,128 @@
+package com.company.userapp.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.function.LongSupplier;
+
+/**
+ * Bounded cache of bearer tokens whose signature has already been verified, keyed by the SHA-256
+ * digest of the token and mapped to the token subject. Entries expire after a fixed TTL. Every
+ * authenticated request reads it, so it is backed by Caffeine rather than a synchronized map:
+ * reads never take a shared lock and eviction bookkeeping is batched off the read path.
+ */
+@Component
+public class VerifiedTokenCache implements MeterBinder {
+
+    private static final String CACHE_NAME = "verifiedTokens";
+
+    private static final ThreadLocal<MessageDigest> DIGEST = ThreadLocal.withInitial(() -> {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    });
+
+    private final int maxSize;
+
+    private final Cache<String, String> entries;
+
+    @Autowired
+    public VerifiedTokenCache(Environment environment) {
+        this(environment.getProperty("user.token.cache.max-size", Integer.class, 10000),
+                environment.getProperty("user.token.cache.ttl", Duration.class, Duration.ofMinutes(5)),
+                System::nanoTime);
+    }
+
+    VerifiedTokenCache(int maxSize, Duration ttl, LongSupplier nanoTime) {
+        this.maxSize = maxSize;
+        this.entries = Caffeine.newBuilder()
+                .maximumSize(Math.max(0, maxSize))
+                .expireAfterWrite(ttl)
+                .ticker(nanoTime::getAsLong)
+                .recordStats()
+                .build();
+    }
+
+    public String getSubject(String token) {
+        return entries.getIfPresent(digest(token));
+    }
+
+    public void put(String token, String subject) {
+
+        if ( maxSize <= 0 ) {
+            return;
+        }
+
+        entries.put(digest(token), subject);
+    }
+
+    public void invalidate(String token) {
+
+        if ( token == null ) {
+            return;
+        }
+
+        entries.invalidate(digest(token));
+    }
+
+    public long getHitCount() {
+        return entries.stats().hitCount();
+    }
+
+    public long getMissCount() {
+        return entries.stats().missCount();
+    }
+
+    public long getEvictionCount() {
+        return entries.stats().evictionCount();
+    }
+
+    /**
+     * Runs the pending eviction bookkeeping first, so expired and overflowing entries are not counted.
+     */
+    public long size() {
+        entries.cleanUp();
+        return entries.estimatedSize();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+
+        FunctionCounter.builder("cache.gets", this, VerifiedTokenCache::getHitCount)
+                .tags("cache", CACHE_NAME, "result", "hit")
+                .description("The number of times the verified token cache returned a subject")
+                .register(registry);
+        FunctionCounter.builder("cache.gets", this, VerifiedTokenCache::getMissCount)
+                .tags("cache", CACHE_NAME, "result", "miss")
+                .description("The number of times the token signature had to be verified")
+                .register(registry);
+        FunctionCounter.builder("cache.evictions", this, VerifiedTokenCache::getEvictionCount)
+                .tags("cache", CACHE_NAME)
+                .description("The number of entries evicted by size or expiration")
+                .register(registry);
+        Gauge.builder("cache.size", this, VerifiedTokenCache::size)
+                .tags("cache", CACHE_NAME)
+                .register(registry);
+    }
+
+    private static String digest(String token) {
+        MessageDigest digest = DIGEST.get();
+        digest.reset();
+        return Base64.getEncoder().encodeToString(digest.digest(token.getBytes(StandardCharsets.UTF_8)));
+    }
+
+}
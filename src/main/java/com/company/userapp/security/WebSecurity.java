@@ -1,6 +1,6 @@
 package com.company.userapp.security;
 
-import com.company.userapp.repository.UserRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Bean;
@@ -14,7 +14,6 @@ import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.http.SessionCreationPolicy;
 import org.springframework.security.core.userdetails.UserDetailsService;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
 
@@ -29,10 +28,16 @@ public class WebSecurity {
     private CustomAuthenticationProvider authenticationProvider;
 
     @Autowired
-    private BCryptPasswordEncoder passwordEncoder;
+    private TokenOwnerCache ownerCache;
 
     @Autowired
-    private UserRepository userRepository;
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private JwtTokenCodec tokenCodec;
+
+    @Autowired
+    private VerifiedTokenCache tokenCache;
 
     @Autowired
     private Environment environment;
@@ -42,11 +47,14 @@ public class WebSecurity {
 
         http.cors().and().csrf().disable().authorizeRequests()
                 .antMatchers(HttpMethod.POST, "/users").permitAll()
+                .antMatchers(HttpMethod.GET, "/users", "/users/export").hasAuthority(OperationsKeyFilter.OPERATIONS_AUTHORITY)
+                .antMatchers(HttpMethod.POST, "/users/batch").hasAuthority(OperationsKeyFilter.OPERATIONS_AUTHORITY)
                 .antMatchers("/docs/**", "/h2-console/**").permitAll()
                 .antMatchers("/swagger-ui.html", "/swagger-ui/**", "/swagger-resources", "/swagger-resources/**", "/webjars/**").permitAll()
                 .anyRequest().authenticated().and()
-                .addFilterBefore(new JWTAuthenticationFilter("/login", authenticationManager(), userRepository), UsernamePasswordAuthenticationFilter.class)
-                .addFilterBefore(new JWTAuthorizationFilter(authenticationManager(), environment.getProperty("user.secret.token", "SECRET_TOKEN_DEMO")), UsernamePasswordAuthenticationFilter.class)
+                .addFilterBefore(new JWTAuthenticationFilter("/login", authenticationManager(), objectMapper, ownerCache), UsernamePasswordAuthenticationFilter.class)
+                .addFilterBefore(new JWTAuthorizationFilter(authenticationManager(), tokenCodec, tokenCache), UsernamePasswordAuthenticationFilter.class)
+                .addFilterAfter(new OperationsKeyFilter(environment.getProperty("user.operations.key")), JWTAuthorizationFilter.class)
                 .sessionManagement()
                 .sessionCreationPolicy(SessionCreationPolicy.STATELESS);
 
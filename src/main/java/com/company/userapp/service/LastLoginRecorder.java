@@ -0,0 +1,88 @@
+package com.company.userapp.service;
+
+import com.company.userapp.cache.UserInvalidation;
+import com.company.userapp.util.UUIDUtil;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Buffers login timestamps per user and writes them periodically with a single JDBC batch,
+ * keeping only the most recent login of each user between flushes.
+ */
+@Slf4j
+@Component
+public class LastLoginRecorder {
+
+    private static final String UPDATE_LAST_LOGIN = "UPDATE app_user SET last_login = ? WHERE id = ?";
+
+    private final ConcurrentHashMap<UUID, Instant> pending = new ConcurrentHashMap<>();
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final UserCacheInvalidator cacheInvalidator;
+
+    public LastLoginRecorder(JdbcTemplate jdbcTemplate, UserCacheInvalidator cacheInvalidator) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.cacheInvalidator = cacheInvalidator;
+    }
+
+    public void record(UUID id, Instant lastLogin) {
+        pending.merge(id, lastLogin, LastLoginRecorder::latest);
+    }
+
+    @Scheduled(fixedDelayString = "${user.last-login.flush-interval:5000}")
+    public void flush() {
+
+        if ( pending.isEmpty() ) {
+            return;
+        }
+
+        Map<UUID, Instant> drained = new HashMap<>();
+        for ( UUID id : pending.keySet() ) {
+            Instant lastLogin = pending.remove(id);
+            if ( lastLogin != null ) {
+                drained.put(id, lastLogin);
+            }
+        }
+
+        List<Object[]> batch = new ArrayList<>(drained.size());
+        drained.forEach((id, lastLogin) -> batch.add(new Object[] { Timestamp.from(lastLogin), UUIDUtil.toBytes(id) }));
+
+        try {
+            jdbcTemplate.batchUpdate(UPDATE_LAST_LOGIN, batch);
+            List<UserInvalidation> invalidations = new ArrayList<>(drained.size());
+            drained.keySet().forEach(id -> invalidations.add(UserInvalidation.userChanged(id)));
+            cacheInvalidator.publish(invalidations);
+        } catch (DataAccessException e) {
+            log.warn("Unable to flush {} last login timestamps, retrying on next flush", batch.size(), e);
+            drained.forEach(this::record);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flush();
+    }
+
+    public int pendingCount() {
+        return pending.size();
+    }
+
+    private static Instant latest(Instant current, Instant candidate) {
+        return current.isAfter(candidate) ? current : candidate;
+    }
+
+}
@@ -0,0 +1,206 @@
+package com.company.userapp.service;
+
+import com.company.userapp.cache.UserInvalidation;
+import com.company.userapp.dto.model.UserDto;
+import com.company.userapp.dto.response.BatchUserResponse;
+import com.company.userapp.exception.BadRequestException;
+import com.company.userapp.exception.ServiceUnavailableException;
+import com.company.userapp.model.User;
+import com.company.userapp.repository.UserRepository;
+import com.company.userapp.security.PasswordHasher;
+import com.company.userapp.security.TokenOwnerCache;
+import com.company.userapp.service.mapper.UserMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.env.Environment;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+
+import javax.validation.ConstraintViolation;
+import javax.validation.Validator;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+/**
+ * Creates many users in one request. Items are validated and checked for registered emails up
+ * front, passwords of each chunk are hashed in parallel on the hashing pool, and the chunk is
+ * written with one JDBC batch per table. Every item gets its own status, so a conflict or invalid
+ * item does not abort the rest of the batch.
+ */
+@Service
+public class UserBatchService {
+
+    private UserRepository userRepository;
+
+    private UserMapper userMapper;
+
+    private PasswordHasher passwordHasher;
+
+    private Validator validator;
+
+    private TokenOwnerCache ownerCache;
+
+    private UserCacheInvalidator cacheInvalidator;
+
+    private int maxSize;
+
+    private int chunkSize;
+
+    @Autowired
+    public UserBatchService(UserRepository userRepository, UserMapper userMapper, PasswordHasher passwordHasher,
+                            Validator validator, TokenOwnerCache ownerCache,
+                            UserCacheInvalidator cacheInvalidator, Environment environment) {
+        this.userRepository = userRepository;
+        this.userMapper = userMapper;
+        this.passwordHasher = passwordHasher;
+        this.validator = validator;
+        this.ownerCache = ownerCache;
+        this.cacheInvalidator = cacheInvalidator;
+        this.maxSize = environment.getProperty("user.batch.max-size", Integer.class, 1000);
+        this.chunkSize = Math.max(1, environment.getProperty("user.batch.chunk-size", Integer.class, 50));
+    }
+
+    public List<BatchUserResponse> create(List<UserDto> userDtos) {
+
+        if ( userDtos == null || userDtos.isEmpty() || userDtos.size() > maxSize ) {
+            throw new BadRequestException(String.format("Batch must contain between 1 and %d users", maxSize));
+        }
+
+        BatchUserResponse[] results = new BatchUserResponse[userDtos.size()];
+        Set<String> emails = new HashSet<>();
+        for ( int index = 0; index < userDtos.size(); index++ ) {
+            String error = validate(userDtos.get(index));
+            if ( error != null ) {
+                results[index] = failure(index, HttpStatus.BAD_REQUEST, error);
+            } else if ( !emails.add(userDtos.get(index).getEmail()) ) {
+                results[index] = failure(index, HttpStatus.CONFLICT, "Email repeated in the batch");
+            }
+        }
+
+        for ( int from = 0; from < userDtos.size(); from += chunkSize ) {
+            int to = Math.min(from + chunkSize, userDtos.size());
+            createChunk(userDtos, results, from, to);
+            registerEmails(results, from, to);
+        }
+
+        return Arrays.asList(results);
+    }
+
+    private void createChunk(List<UserDto> userDtos, BatchUserResponse[] results, int from, int to) {
+
+        List<String> emails = new ArrayList<>(to - from);
+        for ( int index = from; index < to; index++ ) {
+            if ( results[index] == null ) {
+                emails.add(userDtos.get(index).getEmail());
+            }
+        }
+        if ( emails.isEmpty() ) {
+            return;
+        }
+
+        Set<String> registered = new HashSet<>(userRepository.findRegisteredEmails(emails));
+
+        List<Integer> indexes = new ArrayList<>(to - from);
+        List<CompletableFuture<String>> passwords = new ArrayList<>(to - from);
+        for ( int index = from; index < to; index++ ) {
+            if ( results[index] != null ) {
+                continue;
+            }
+            if ( registered.contains(userDtos.get(index).getEmail()) ) {
+                results[index] = failure(index, HttpStatus.CONFLICT, "Email already registered");
+                continue;
+            }
+            indexes.add(index);
+            passwords.add(passwordHasher.encodeAsync(userDtos.get(index).getPassword()));
+        }
+
+        List<Integer> created = new ArrayList<>(indexes.size());
+        List<User> users = new ArrayList<>(indexes.size());
+        for ( int i = 0; i < indexes.size(); i++ ) {
+            int index = indexes.get(i);
+            try {
+                users.add(userMapper.toUser(userDtos.get(index), passwords.get(i).join()));
+                created.add(index);
+            } catch (CompletionException e) {
+                results[index] = e.getCause() instanceof ServiceUnavailableException
+                        ? failure(index, HttpStatus.SERVICE_UNAVAILABLE, e.getCause().getMessage())
+                        : failure(index, HttpStatus.INTERNAL_SERVER_ERROR, "There was an internal server error");
+            }
+        }
+        if ( users.isEmpty() ) {
+            return;
+        }
+
+        try {
+            userRepository.insertAll(users);
+        } catch (DataIntegrityViolationException e) {
+            insertOneByOne(users, created, results);
+            return;
+        }
+
+        for ( int i = 0; i < users.size(); i++ ) {
+            results[created.get(i)] = success(created.get(i), users.get(i));
+        }
+    }
+
+    /**
+     * Falls back to one insert per user when the batch hit a constraint, typically an email
+     * registered concurrently after the up-front check, so only the offending items fail.
+     */
+    private void insertOneByOne(List<User> users, List<Integer> indexes, BatchUserResponse[] results) {
+
+        for ( int i = 0; i < users.size(); i++ ) {
+            int index = indexes.get(i);
+            try {
+                userRepository.insertAll(List.of(users.get(i)));
+                results[index] = success(index, users.get(i));
+            } catch (DataIntegrityViolationException e) {
+                results[index] = e.getMessage() != null && e.getMessage().toLowerCase().contains("unique_email_constraint")
+                        ? failure(index, HttpStatus.CONFLICT, "Email already registered")
+                        : failure(index, HttpStatus.INTERNAL_SERVER_ERROR, "There was an internal server error");
+            }
+        }
+    }
+
+    /**
+     * The plain JDBC inserts bypass the entity listener, so the emails of the created users are
+     * registered here, on this node and on the others, in one message per chunk.
+     */
+    private void registerEmails(BatchUserResponse[] results, int from, int to) {
+
+        List<UserInvalidation> registered = new ArrayList<>(to - from);
+        for ( int index = from; index < to; index++ ) {
+            if ( results[index].getUser() != null ) {
+                registered.add(UserInvalidation.emailRegistered(results[index].getUser().getEmail()));
+            }
+        }
+        cacheInvalidator.publish(registered);
+    }
+
+    private String validate(UserDto userDto) {
+
+        if ( userDto == null ) {
+            return "User must not be null";
+        }
+
+        Set<ConstraintViolation<UserDto>> violations = validator.validate(userDto);
+        return violations.isEmpty() ? null : violations.iterator().next().getMessage();
+    }
+
+    private BatchUserResponse success(int index, User user) {
+
+        ownerCache.put(user.getToken(), user.getId());
+
+        return new BatchUserResponse(index, HttpStatus.CREATED.value(), userMapper.entityToUserResponse(user), null);
+    }
+
+    private BatchUserResponse failure(int index, HttpStatus status, String error) {
+        return new BatchUserResponse(index, status.value(), null, error);
+    }
+
+}
@@ -0,0 +1,105 @@
+package com.company.userapp.service;
+
+import com.company.userapp.cache.InvalidationBus;
+import com.company.userapp.cache.UserInvalidation;
+import com.company.userapp.model.User;
+import com.company.userapp.security.RegisteredEmailFilter;
+import com.company.userapp.security.TokenOwnerCache;
+import com.company.userapp.security.VerifiedTokenCache;
+import org.hibernate.Cache;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import javax.persistence.EntityManagerFactory;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Single entry point for dropping cached user state after a write. Each invalidation is applied
+ * to the caches of this node right away and published on the {@link InvalidationBus}, so the
+ * other nodes drop their copies as well instead of serving stale users or trusting deleted tokens.
+ */
+@Component
+public class UserCacheInvalidator {
+
+    private static final String PHONES_ROLE = User.class.getName() + ".phones";
+
+    private final VerifiedTokenCache tokenCache;
+
+    private final TokenOwnerCache ownerCache;
+
+    private final UserResponseCache responseCache;
+
+    private final RegisteredEmailFilter registeredEmailFilter;
+
+    private final EntityManagerFactory entityManagerFactory;
+
+    private final InvalidationBus invalidationBus;
+
+    @Autowired
+    public UserCacheInvalidator(VerifiedTokenCache tokenCache, TokenOwnerCache ownerCache, UserResponseCache responseCache,
+                                RegisteredEmailFilter registeredEmailFilter, EntityManagerFactory entityManagerFactory,
+                                InvalidationBus invalidationBus) {
+        this.tokenCache = tokenCache;
+        this.ownerCache = ownerCache;
+        this.responseCache = responseCache;
+        this.registeredEmailFilter = registeredEmailFilter;
+        this.entityManagerFactory = entityManagerFactory;
+        this.invalidationBus = invalidationBus;
+        invalidationBus.subscribe(invalidation -> apply(invalidation, true));
+    }
+
+    public void userChanged(UUID id) {
+        publish(List.of(UserInvalidation.userChanged(id)));
+    }
+
+    public void userDeleted(UUID id, String token) {
+        publish(List.of(UserInvalidation.userDeleted(id, token)));
+    }
+
+    public void emailRegistered(String email) {
+        if ( email != null ) {
+            publish(List.of(UserInvalidation.emailRegistered(email)));
+        }
+    }
+
+    public void publish(Collection<UserInvalidation> invalidations) {
+
+        if ( invalidations.isEmpty() ) {
+            return;
+        }
+
+        invalidations.forEach(invalidation -> apply(invalidation, false));
+        invalidationBus.publish(invalidations);
+    }
+
+    private void apply(UserInvalidation invalidation, boolean remote) {
+
+        Cache cache = entityManagerFactory.getCache().unwrap(Cache.class);
+
+        switch ( invalidation.getType() ) {
+            case USER_DELETED:
+                tokenCache.invalidate(invalidation.getToken());
+                ownerCache.invalidate(invalidation.getToken());
+                // fall through
+            case USER_CHANGED:
+                responseCache.invalidate(invalidation.getId());
+                cache.evictEntityData(User.class, invalidation.getId());
+                if ( remote ) {
+                    cache.evictCollectionData(PHONES_ROLE, invalidation.getId());
+                }
+                break;
+            case EMAIL_REGISTERED:
+                registeredEmailFilter.add(invalidation.getEmail());
+                break;
+        }
+
+        // a write on another node went through its own session, so the queries cached here
+        // (credentials by email among them) have not seen it
+        if ( remote ) {
+            cache.evictQueryRegions();
+        }
+    }
+
+}
@@ -0,0 +1,151 @@
+package com.company.userapp.service;
+
+import com.company.userapp.service.mapper.UserMapper;
+import com.company.userapp.util.UUIDUtil;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.UUID;
+
+/**
+ * Streams every user with its phones as NDJSON, one object per line ordered by id. Rows are read
+ * from a forward-only JDBC cursor and written straight to the output as they arrive, so memory
+ * stays constant whatever the size of the table. Tokens and passwords are never exported.
+ */
+@Service
+public class UserExportService {
+
+    private static final String SELECT_USERS = "SELECT u.id, u.name, u.email, u.created, u.modified, u.last_login, "
+            + "u.active, p.number, p.city_code, p.country_code FROM app_user u LEFT JOIN phone p ON p.user_id = u.id";
+
+    // the writer only needs the rows of a user to be adjacent; ordering by the primary key alone
+    // lets the database walk it instead of sorting the whole join before the first row
+    private static final String ORDER_BY = " ORDER BY u.id";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final ObjectMapper objectMapper;
+
+    private final UserMapper userMapper;
+
+    private final int fetchSize;
+
+    @Autowired
+    public UserExportService(JdbcTemplate jdbcTemplate, ObjectMapper objectMapper, UserMapper userMapper,
+                             Environment environment) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.objectMapper = objectMapper;
+        this.userMapper = userMapper;
+        this.fetchSize = environment.getProperty("user.export.fetch-size", Integer.class, 500);
+    }
+
+    /**
+     * Exports the users whose id sorts after {@code after}, or all of them when it is null, so an
+     * interrupted export can be resumed from the id of the last line received. The id is validated
+     * here, before any byte is written; the rows are only read once the body is streamed.
+     */
+    public StreamingResponseBody export(String after) {
+
+        UUID from = after == null ? null : userMapper.toUUID(after);
+        return outputStream -> export(from, outputStream);
+    }
+
+    void export(UUID after, OutputStream outputStream) throws IOException {
+
+        JsonGenerator generator = objectMapper.getFactory().createGenerator(outputStream)
+                .disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        // one object per line instead of Jackson's space between root values
+        generator.setRootValueSeparator(null);
+        UserWriter writer = new UserWriter(generator);
+
+        try {
+            jdbcTemplate.query(connection -> {
+                PreparedStatement statement = connection.prepareStatement(
+                        after == null ? SELECT_USERS + ORDER_BY : SELECT_USERS + " WHERE u.id > ?" + ORDER_BY,
+                        ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+                statement.setFetchSize(fetchSize);
+                if ( after != null ) {
+                    statement.setBytes(1, UUIDUtil.toBytes(after));
+                }
+                return statement;
+            }, writer::write);
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+
+        writer.finish();
+        generator.close();
+    }
+
+    /**
+     * Writes consecutive rows of the same user as one JSON line, closing it when the id changes.
+     */
+    private static final class UserWriter {
+
+        private final JsonGenerator generator;
+
+        private String current;
+
+        private UserWriter(JsonGenerator generator) {
+            this.generator = generator;
+        }
+
+        private void write(ResultSet row) throws SQLException {
+            try {
+                String id = UUIDUtil.fromBytes(row.getBytes("id")).toString();
+                if ( !id.equals(current) ) {
+                    finish();
+                    current = id;
+                    generator.writeStartObject();
+                    generator.writeStringField("id", id);
+                    generator.writeStringField("name", row.getString("name"));
+                    generator.writeStringField("email", row.getString("email"));
+                    writeInstant("created", row.getTimestamp("created"));
+                    writeInstant("modified", row.getTimestamp("modified"));
+                    writeInstant("last_login", row.getTimestamp("last_login"));
+                    generator.writeBooleanField("isactive", row.getBoolean("active"));
+                    generator.writeArrayFieldStart("phones");
+                }
+
+                String number = row.getString("number");
+                if ( number != null ) {
+                    generator.writeStartObject();
+                    generator.writeStringField("number", number);
+                    generator.writeStringField("citycode", row.getString("city_code"));
+                    generator.writeStringField("contrycode", row.getString("country_code"));
+                    generator.writeEndObject();
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        private void writeInstant(String name, Timestamp timestamp) throws IOException {
+            generator.writeStringField(name, timestamp.toInstant().toString());
+        }
+
+        private void finish() throws IOException {
+            if ( current == null ) {
+                return;
+            }
+            generator.writeEndArray();
+            generator.writeEndObject();
+            generator.writeRaw('\n');
+            current = null;
+        }
+
+    }
+
+}
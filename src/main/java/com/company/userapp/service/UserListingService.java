@@ -0,0 +1,73 @@
+package com.company.userapp.service;
+
+import com.company.userapp.dto.response.UserPageResponse;
+import com.company.userapp.dto.response.UserResponse;
+import com.company.userapp.exception.BadRequestException;
+import com.company.userapp.model.User;
+import com.company.userapp.repository.UserRepository;
+import com.company.userapp.service.mapper.UserMapper;
+import com.company.userapp.util.UserCursor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Lists users ordered by creation date with keyset pagination: the cursor is the position of the
+ * last user of the previous page, so every page costs one index seek whatever its depth.
+ */
+@Service
+public class UserListingService {
+
+    private static final int DEFAULT_PAGE_SIZE = 20;
+
+    private UserRepository userRepository;
+
+    private UserMapper userMapper;
+
+    private int maxPageSize;
+
+    @Autowired
+    public UserListingService(UserRepository userRepository, UserMapper userMapper, Environment environment) {
+        this.userRepository = userRepository;
+        this.userMapper = userMapper;
+        this.maxPageSize = environment.getProperty("user.list.max-page-size", Integer.class, 100);
+    }
+
+    public UserPageResponse list(String cursor, Integer limit, Boolean active, String emailPrefix) {
+
+        int size = limit == null ? Math.min(DEFAULT_PAGE_SIZE, maxPageSize) : limit;
+        if ( size < 1 || size > maxPageSize ) {
+            throw new BadRequestException(String.format("Limit must be between 1 and %d", maxPageSize));
+        }
+
+        UserCursor after = null;
+        if ( cursor != null ) {
+            after = UserCursor.decode(cursor);
+            if ( after == null ) {
+                throw new BadRequestException("Invalid cursor");
+            }
+        }
+
+        // one extra row tells whether there is a next page without a count query
+        List<User> users = userRepository.findPage(after == null ? null : after.getCreated(),
+                after == null ? null : after.getId(), active, emailPrefix, size + 1);
+
+        boolean more = users.size() > size;
+        List<UserResponse> page = new ArrayList<>(Math.min(size, users.size()));
+        for ( User user : more ? users.subList(0, size) : users ) {
+            page.add(userMapper.entityToUserSummary(user));
+        }
+
+        String next = null;
+        if ( more ) {
+            User last = users.get(size - 1);
+            next = new UserCursor(last.getCreated(), last.getId()).encode();
+        }
+
+        return new UserPageResponse(page, next);
+    }
+
+}
@@ -0,0 +1,198 @@
+package com.company.userapp.service;
+
+import com.company.userapp.dto.response.SerializedUserResponse;
+import com.company.userapp.dto.response.UserResponse;
+import com.company.userapp.exception.InternalServerErrorException;
+import com.company.userapp.util.SingleFlight;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Bounded LRU cache of serialized {@code GET /users/{id}} bodies keyed by user id. Each entry keeps
+ * the token of the user so entity authorization can be checked without loading the user.
+ * <p>
+ * Every invalidation bumps a generation counter; a response built from a read that started before
+ * an invalidation is served but not cached, so a concurrent update cannot be hidden by stale bytes.
+ * Misses are loaded at most once per id at a time; an invalidation detaches the load in flight so
+ * later readers do not join a read that started before the change.
+ */
+@Component
+public class UserResponseCache implements MeterBinder {
+
+    private static final String CACHE_NAME = "userResponses";
+
+    private final ObjectMapper objectMapper;
+
+    private final int maxSize;
+
+    private final LinkedHashMap<UUID, Entry> entries;
+
+    private long generation;
+
+    private final SingleFlight<UUID, Entry> loads = new SingleFlight<>();
+
+    private final LongAdder hits = new LongAdder();
+
+    private final LongAdder misses = new LongAdder();
+
+    @Autowired
+    public UserResponseCache(ObjectMapper objectMapper, Environment environment) {
+        this(objectMapper, environment.getProperty("user.response.cache.max-size", Integer.class, 10000));
+    }
+
+    UserResponseCache(ObjectMapper objectMapper, int maxSize) {
+        this.objectMapper = objectMapper;
+        this.maxSize = maxSize;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<UUID, Entry> eldest) {
+                return size() > UserResponseCache.this.maxSize;
+            }
+        };
+    }
+
+    public Entry get(UUID id) {
+
+        Entry entry;
+        synchronized (entries) {
+            entry = entries.get(id);
+        }
+
+        if ( entry == null ) {
+            misses.increment();
+        } else {
+            hits.increment();
+        }
+        return entry;
+    }
+
+    /**
+     * Returns the cached entry or builds it with {@code loader}. Concurrent misses for the same id
+     * share a single load and its result or exception, so a hot id costs one query however many
+     * requests arrive while it is being read. The caller still authorizes against the entry token.
+     */
+    public Entry getOrLoad(UUID id, Supplier<Entry> loader) {
+
+        Entry cached = get(id);
+        if ( cached != null ) {
+            return cached;
+        }
+
+        return loads.execute(id, () -> {
+
+            long readGeneration;
+            synchronized (entries) {
+                Entry loaded = entries.get(id);
+                if ( loaded != null ) {
+                    return loaded;
+                }
+                readGeneration = generation;
+            }
+
+            Entry entry = loader.get();
+            store(id, entry, readGeneration);
+            return entry;
+        });
+    }
+
+    /**
+     * Serializes a response into an entry without caching it, for {@link #getOrLoad} loaders.
+     */
+    public Entry entry(String token, String eTag, UserResponse userResponse) {
+
+        byte[] body;
+        try {
+            body = objectMapper.writeValueAsBytes(userResponse);
+        } catch (JsonProcessingException e) {
+            throw new InternalServerErrorException("There was an internal server error");
+        }
+
+        return new Entry(token, new SerializedUserResponse(body, eTag));
+    }
+
+    private void store(UUID id, Entry entry, long readGeneration) {
+
+        synchronized (entries) {
+            if ( maxSize > 0 && readGeneration == generation ) {
+                entries.put(id, entry);
+            }
+        }
+    }
+
+    public void invalidate(UUID id) {
+
+        if ( id == null ) {
+            return;
+        }
+
+        synchronized (entries) {
+            generation++;
+            entries.remove(id);
+        }
+        loads.forget(id);
+    }
+
+    public long getHitCount() {
+        return hits.sum();
+    }
+
+    public long getMissCount() {
+        return misses.sum();
+    }
+
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+
+        FunctionCounter.builder("cache.gets", this, UserResponseCache::getHitCount)
+                .tags("cache", CACHE_NAME, "result", "hit")
+                .description("The number of user reads served from serialized bytes")
+                .register(registry);
+        FunctionCounter.builder("cache.gets", this, UserResponseCache::getMissCount)
+                .tags("cache", CACHE_NAME, "result", "miss")
+                .description("The number of user reads that had to be mapped and serialized")
+                .register(registry);
+        Gauge.builder("cache.size", this, UserResponseCache::size)
+                .tags("cache", CACHE_NAME)
+                .register(registry);
+    }
+
+    public static final class Entry {
+
+        private final String token;
+
+        private final SerializedUserResponse response;
+
+        private Entry(String token, SerializedUserResponse response) {
+            this.token = token;
+            this.response = response;
+        }
+
+        public String getToken() {
+            return token;
+        }
+
+        public SerializedUserResponse getResponse() {
+            return response;
+        }
+    }
+
+}
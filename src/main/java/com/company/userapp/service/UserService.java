@@ -1,32 +1,63 @@
 package com.company.userapp.service;
 
+import com.company.userapp.cache.UserInvalidation;
 import com.company.userapp.dto.model.UserDto;
+import com.company.userapp.dto.model.UserPatchDto;
+import com.company.userapp.dto.response.SerializedUserResponse;
 import com.company.userapp.dto.response.UserResponse;
 import com.company.userapp.exception.ConflictException;
+import com.company.userapp.exception.ForbiddenException;
 import com.company.userapp.exception.InternalServerErrorException;
 import com.company.userapp.exception.NotFoundException;
+import com.company.userapp.exception.PreconditionFailedException;
 import com.company.userapp.model.User;
 import com.company.userapp.repository.UserRepository;
+import com.company.userapp.repository.UserVersion;
+import com.company.userapp.security.TokenOwnerCache;
 import com.company.userapp.service.mapper.UserMapper;
 
+import com.company.userapp.util.ETagUtil;
 import com.company.userapp.util.JWTUtil;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.env.Environment;
 import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.UUID;
 
 @Service
 public class UserService {
 
+    private static final String PRINCIPAL_AUTHORIZATION = "principal";
+
     private UserRepository userRepository;
 
     private UserMapper userMapper;
 
+    private TokenOwnerCache ownerCache;
+
+    private UserResponseCache responseCache;
+
+    private UserCacheInvalidator cacheInvalidator;
+
+    private boolean principalAuthorization;
+
     @Autowired
-    public UserService(UserRepository userRepository, UserMapper userMapper) {
+    public UserService(UserRepository userRepository, UserMapper userMapper, TokenOwnerCache ownerCache,
+                       UserResponseCache responseCache, UserCacheInvalidator cacheInvalidator, Environment environment) {
         this.userRepository = userRepository;
         this.userMapper = userMapper;
+        this.ownerCache = ownerCache;
+        this.responseCache = responseCache;
+        this.cacheInvalidator = cacheInvalidator;
+        this.principalAuthorization = PRINCIPAL_AUTHORIZATION.equalsIgnoreCase(
+                environment.getProperty("user.authorization.mode", "entity"));
     }
 
     public UserResponse create(UserDto userDto) {
@@ -36,60 +67,277 @@ public class UserService {
         try {
             userRepository.save(user);
         } catch (DataIntegrityViolationException e) {
-            if ( e.getMessage() != null && e.getMessage().toLowerCase().contains("unique_email_constraint") ) {
-                throw new ConflictException("Email already registered");
-            }
-
-            throw new InternalServerErrorException("There was an internal server error");
+            throw integrityViolation(e);
         }
 
+        ownerCache.put(user.getToken(), user.getId());
+        cacheInvalidator.emailRegistered(user.getEmail());
+
         return userMapper.entityToUserResponse(user);
     }
 
-    public UserResponse findById(String id, String bearer) {
+    /**
+     * Looks up the user for its owner, returning the serialized body from the response cache when
+     * present so repeated reads skip the query, the mapping and Jackson. Concurrent misses for the
+     * same id share one load, which is authorized per caller afterwards.
+     */
+    public SerializedUserResponse findSerializedById(String id, String bearer) {
 
-        User user = userRepository.findById(userMapper.toUUID(id)).orElseThrow(() -> {
-            throw new NotFoundException(String.format("User with id %s not found", id));
+        UUID uuid = userMapper.toUUID(id);
+        authorizeOwner(uuid, bearer);
+
+        UserResponseCache.Entry entry = responseCache.getOrLoad(uuid, () -> {
+            User user = userRepository.findWithPhonesById(uuid).orElseThrow(() -> {
+                throw new NotFoundException(String.format("User with id %s not found", id));
+            });
+            return responseCache.entry(user.getToken(), ETagUtil.userETag(user.getVersion(), user.getModified(), user.getLastLogin()),
+                    userMapper.entityToUserResponse(user));
         });
 
-        JWTUtil.isValidToken(bearer, user.getToken());
+        if ( !principalAuthorization ) {
+            JWTUtil.isValidToken(bearer, entry.getToken());
+        }
 
-        return userMapper.entityToUserResponse(user);
+        return entry.getResponse();
     }
 
-    public UserResponse update(String id, UserDto userDto, String bearer) {
+    /**
+     * Resolves the current ETag of the user with the same authorization as {@link #findSerializedById}, from
+     * the response cache or a projection query, without loading the user and its phones.
+     */
+    public String findETag(String id, String bearer) {
 
-        User user = userRepository.findById(userMapper.toUUID(id)).orElseThrow(() -> {
+        UUID uuid = userMapper.toUUID(id);
+        authorizeOwner(uuid, bearer);
+
+        UserResponseCache.Entry cached = responseCache.get(uuid);
+        if ( cached != null ) {
+            if ( !principalAuthorization ) {
+                JWTUtil.isValidToken(bearer, cached.getToken());
+            }
+            return cached.getResponse().getETag();
+        }
+
+        UserVersion version = userRepository.findVersionById(uuid).orElseThrow(() -> {
             throw new NotFoundException(String.format("User with id %s not found", id));
         });
 
-        JWTUtil.isValidToken(bearer, user.getToken());
+        if ( !principalAuthorization ) {
+            JWTUtil.isValidToken(bearer, version.getToken());
+        }
+
+        return ETagUtil.userETag(version.getVersion(), version.getModified(), version.getLastLogin());
+    }
+
+    /**
+     * Updates the user. With an {@code If-Match} version the row is changed by one conditional
+     * UPDATE without reading it first; otherwise the loaded entity is saved under optimistic
+     * locking. Either way a concurrent change fails with 412 instead of being overwritten.
+     */
+    public UserResponse update(String id, UserDto userDto, String bearer, String ifMatch) {
+
+        UUID uuid = userMapper.toUUID(id);
+        authorizeOwner(uuid, bearer);
+
+        if ( ifMatch != null && !"*".equals(ifMatch.trim()) ) {
+            return updateIfMatch(uuid, id, userDto, bearer, ETagUtil.version(ifMatch));
+        }
 
-        user = userMapper.updateEntity(user, userDto);
+        User user = userMapper.updateEntity(findOwnedUser(uuid, id, bearer), userDto);
 
         try {
 
-            return userMapper.entityToUserResponse(userRepository.save(user));
+            UserResponse userResponse = userMapper.entityToUserResponse(userRepository.save(user));
+            cacheInvalidator.publish(List.of(UserInvalidation.userChanged(uuid), UserInvalidation.emailRegistered(user.getEmail())));
+            return userResponse;
+
+        } catch (ObjectOptimisticLockingFailureException e) {
+
+            throw new PreconditionFailedException("User was modified concurrently");
 
         } catch (DataIntegrityViolationException e) {
 
-            if ( e.getMessage() != null && e.getMessage().toLowerCase().contains("unique_email_constraint") ) {
-                throw new ConflictException("Email already registered");
+            throw integrityViolation(e);
+        }
+    }
+
+    private UserResponse updateIfMatch(UUID uuid, String id, UserDto userDto, String bearer, Long version) {
+
+        if ( version == null ) {
+            throw new PreconditionFailedException("If-Match does not match the current user version");
+        }
+
+        authorizeTokenOwner(uuid, id, bearer);
+
+        return applyChanges(uuid, id, bearer, version, userMapper.updateEntity(new User(), userDto));
+    }
+
+    /**
+     * Applies a JSON Merge Patch with one UPDATE of the supplied columns. The password is only
+     * re-hashed and the phones only diffed when they are part of the patch.
+     */
+    public UserResponse patch(String id, UserPatchDto userPatchDto, String bearer, String ifMatch) {
+
+        UUID uuid = userMapper.toUUID(id);
+        authorizeOwner(uuid, bearer);
+
+        Long version = null;
+        if ( ifMatch != null && !"*".equals(ifMatch.trim()) ) {
+            version = ETagUtil.version(ifMatch);
+            if ( version == null ) {
+                throw new PreconditionFailedException("If-Match does not match the current user version");
             }
+        }
 
-            throw new InternalServerErrorException("There was an internal server error");
+        if ( userPatchDto.getPassword() != null ) {
+            authorizeTokenOwner(uuid, id, bearer);
         }
+
+        return applyChanges(uuid, id, bearer, version, userMapper.patchToChanges(userPatchDto));
+    }
+
+    private UserResponse applyChanges(UUID uuid, String id, String bearer, Long version, User changes) {
+
+        String token = principalAuthorization ? null : JWTUtil.extractToken(bearer);
+        if ( !principalAuthorization && token == null ) {
+            throw new ForbiddenException("Forbidden request");
+        }
+
+        int updated;
+        try {
+            updated = userRepository.updateIfMatches(uuid, version, token, changes);
+        } catch (DataIntegrityViolationException e) {
+            throw integrityViolation(e);
+        }
+
+        if ( updated == 0 ) {
+            UserVersion current = userRepository.findVersionById(uuid).orElseThrow(() -> {
+                throw new NotFoundException(String.format("User with id %s not found", id));
+            });
+            if ( !principalAuthorization ) {
+                JWTUtil.isValidToken(bearer, current.getToken());
+            }
+            throw new PreconditionFailedException("If-Match does not match the current user version");
+        }
+
+        List<UserInvalidation> invalidations = new ArrayList<>(2);
+        invalidations.add(UserInvalidation.userChanged(uuid));
+        if ( changes.getEmail() != null ) {
+            invalidations.add(UserInvalidation.emailRegistered(changes.getEmail()));
+        }
+        cacheInvalidator.publish(invalidations);
+
+        return userMapper.entityToUserResponse(userRepository.findWithPhonesById(uuid).orElseThrow(() -> {
+            throw new NotFoundException(String.format("User with id %s not found", id));
+        }));
     }
 
     public void delete(String id, String bearer) {
 
-        User user = userRepository.findById(userMapper.toUUID(id)).orElseThrow(() -> {
+        UUID uuid = userMapper.toUUID(id);
+
+        if ( principalAuthorization ) {
+            authorizeOwner(uuid, bearer);
+
+            String token = JWTUtil.extractToken(bearer);
+            int deleted = userRepository.deleteByIdAndToken(uuid, token);
+
+            if ( deleted == 0 ) {
+                ownerCache.invalidate(token);
+                throw new NotFoundException(String.format("User with id %s not found", id));
+            }
+
+            cacheInvalidator.userDeleted(uuid, token);
+            return;
+        }
+
+        User user = userRepository.findById(uuid).orElseThrow(() -> {
             throw new NotFoundException(String.format("User with id %s not found", id));
         });
 
         JWTUtil.isValidToken(bearer, user.getToken());
 
         userRepository.delete(user);
+        cacheInvalidator.userDeleted(uuid, user.getToken());
+    }
+
+    private RuntimeException integrityViolation(DataIntegrityViolationException e) {
+
+        if ( e.getMessage() != null && e.getMessage().toLowerCase().contains("unique_email_constraint") ) {
+            return new ConflictException("Email already registered");
+        }
+
+        return new InternalServerErrorException("There was an internal server error");
+    }
+
+    private User findOwnedUser(UUID uuid, String id, String bearer) {
+
+        User user = userRepository.findWithPhonesById(uuid).orElseThrow(() -> {
+            throw new NotFoundException(String.format("User with id %s not found", id));
+        });
+
+        if ( !principalAuthorization ) {
+            JWTUtil.isValidToken(bearer, user.getToken());
+        }
+
+        return user;
+    }
+
+    private void authorizeOwner(UUID id, String bearer) {
+
+        if ( !principalAuthorization ) {
+            return;
+        }
+
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        String token = JWTUtil.extractToken(bearer);
+        if ( authentication == null || !authentication.isAuthenticated()
+                || authentication instanceof AnonymousAuthenticationToken || token == null ) {
+            throw new ForbiddenException("Forbidden request");
+        }
+
+        if ( !id.equals(ownerOf(token)) ) {
+            throw new ForbiddenException("Forbidden request");
+        }
+    }
+
+    /**
+     * Entity mode counterpart of {@link #authorizeOwner} for writes that hash a new password: the
+     * conditional UPDATE checks the token itself, but only after the hash was paid for, so a wrong
+     * token is rejected first through the cached owner of the token. When the token has no owner
+     * the answer is the same as the conditional UPDATE would give: 404 for an unknown user,
+     * 403 otherwise.
+     */
+    private void authorizeTokenOwner(UUID uuid, String id, String bearer) {
+
+        if ( principalAuthorization ) {
+            return;
+        }
+
+        String token = JWTUtil.extractToken(bearer);
+        if ( token == null ) {
+            throw new ForbiddenException("Forbidden request");
+        }
+
+        if ( !uuid.equals(ownerOf(token)) ) {
+            UserVersion current = userRepository.findVersionById(uuid).orElseThrow(() -> {
+                throw new NotFoundException(String.format("User with id %s not found", id));
+            });
+            JWTUtil.isValidToken(bearer, current.getToken());
+        }
+    }
+
+    private UUID ownerOf(String token) {
+
+        UUID owner = ownerCache.get(token);
+        if ( owner == null ) {
+            owner = userRepository.findIdByToken(token).orElse(null);
+            if ( owner != null ) {
+                ownerCache.put(token, owner);
+            }
+        }
+
+        return owner;
     }
 
 }
@@ -1,50 +1,60 @@
 package com.company.userapp.service.mapper;
 
+import com.company.userapp.dto.model.PhoneDto;
 import com.company.userapp.dto.model.UserDto;
+import com.company.userapp.dto.model.UserPatchDto;
 import com.company.userapp.dto.response.UserResponse;
 
 import com.company.userapp.exception.BadRequestException;
 
+import com.company.userapp.model.Phone;
 import com.company.userapp.model.User;
 
-import com.company.userapp.util.JWTUtil;
+import com.company.userapp.security.JwtTokenCodec;
+import com.company.userapp.security.PasswordHasher;
 
-import com.fasterxml.jackson.core.type.TypeReference;
-import com.fasterxml.jackson.databind.ObjectMapper;
-
-import org.springframework.core.env.Environment;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.stereotype.Component;
 
 import java.time.Instant;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.Set;
 import java.util.UUID;
 
+/**
+ * Copies fields between the user DTOs and entities directly, mirroring the JSON property names the
+ * previous {@code ObjectMapper.convertValue} mapping relied on.
+ */
 @Component
 public class UserMapper {
 
-    private ObjectMapper objectMapper;
-
-    private BCryptPasswordEncoder passwordEncoder;
+    private PasswordHasher passwordHasher;
 
-    private Environment environment;
+    private JwtTokenCodec tokenCodec;
 
-    public UserMapper(ObjectMapper objectMapper, BCryptPasswordEncoder passwordEncoder, Environment environment) {
-        this.objectMapper = objectMapper;
-        this.passwordEncoder = passwordEncoder;
-        this.environment = environment;
+    public UserMapper(PasswordHasher passwordHasher, JwtTokenCodec tokenCodec) {
+        this.passwordHasher = passwordHasher;
+        this.tokenCodec = tokenCodec;
     }
 
     public User toUser(UserDto userDto) {
-        User user = objectMapper.convertValue(userDto, User.class);
-        user.setPassword(passwordEncoder.encode(user.getPassword()));
+        return toUser(userDto, passwordHasher.encode(userDto.getPassword()));
+    }
+
+    /**
+     * Builds a new user with a password already hashed by the caller.
+     */
+    public User toUser(UserDto userDto, String encodedPassword) {
+        User user = new User();
+        user.setName(userDto.getName());
+        user.setEmail(userDto.getEmail());
+        user.setPassword(encodedPassword);
         user.setCreated(Instant.now());
         user.setModified(Instant.now());
         user.setActive(true);
         user.setLastLogin(user.getCreated());
-        user.setToken(JWTUtil.generateJwtToken(user.getEmail(), environment.getProperty("user.secret.token", "SECRET_TOKEN_DEMO")));
-        user.getPhones().forEach((phone) -> {
-            phone.setUser(user);
-        });
+        user.setToken(tokenCodec.sign(user.getEmail()));
+        user.setPhones(toPhones(userDto.getPhones(), user));
 
         return user;
     }
@@ -54,18 +64,130 @@ public class UserMapper {
         user.setModified(Instant.now());
         user.setName(userDto.getName());
         user.setEmail(userDto.getEmail());
-        user.setPassword(userDto.getPassword());
-        user.setPhones(objectMapper.convertValue(userDto.getPhones(), new TypeReference<>(){}));
-        user.getPhones().forEach((phone) -> {
-            phone.setUser(user);
-        });
+        user.setPassword(passwordHasher.encode(userDto.getPassword()));
+        mergePhones(user, userDto.getPhones());
 
         return user;
     }
 
+    /**
+     * Builds a detached user carrying only the patched fields, hashing the password only when a
+     * new one is supplied.
+     */
+    public User patchToChanges(UserPatchDto userPatchDto) {
+
+        User changes = new User();
+        changes.setModified(Instant.now());
+        changes.setName(userPatchDto.getName());
+        changes.setEmail(userPatchDto.getEmail());
+        if ( userPatchDto.getPassword() != null ) {
+            changes.setPassword(passwordHasher.encode(userPatchDto.getPassword()));
+        }
+        changes.setPhones(toPhones(userPatchDto.getPhones(), changes));
+
+        return changes;
+    }
+
     public UserResponse entityToUserResponse(User user) {
 
-        return objectMapper.convertValue(user, UserResponse.class);
+        UserResponse userResponse = new UserResponse();
+        userResponse.setId(user.getId() == null ? null : user.getId().toString());
+        userResponse.setName(user.getName());
+        userResponse.setEmail(user.getEmail());
+        userResponse.setPhones(toPhoneDtos(user.getPhones()));
+        userResponse.setCreated(user.getCreated());
+        userResponse.setModified(user.getModified());
+        userResponse.setLastLogin(user.getLastLogin());
+        userResponse.setIsActive(user.getActive());
+        userResponse.setToken(user.getToken());
+
+        return userResponse;
+    }
+
+    /**
+     * Listing view of a user: no phones, so they are never loaded, and no token, which only its
+     * owner may see.
+     */
+    public UserResponse entityToUserSummary(User user) {
+
+        UserResponse userResponse = new UserResponse();
+        userResponse.setId(user.getId().toString());
+        userResponse.setName(user.getName());
+        userResponse.setEmail(user.getEmail());
+        userResponse.setCreated(user.getCreated());
+        userResponse.setModified(user.getModified());
+        userResponse.setLastLogin(user.getLastLogin());
+        userResponse.setIsActive(user.getActive());
+
+        return userResponse;
+    }
+
+    private Set<Phone> toPhones(Set<PhoneDto> phoneDtos, User user) {
+
+        if ( phoneDtos == null ) {
+            return null;
+        }
+
+        Set<Phone> phones = new LinkedHashSet<>(Math.max(4, phoneDtos.size() * 2));
+        for ( PhoneDto phoneDto : phoneDtos ) {
+            phones.add(toPhone(phoneDto, user));
+        }
+        return phones;
+    }
+
+    private Phone toPhone(PhoneDto phoneDto, User user) {
+
+        Phone phone = new Phone();
+        phone.setNumber(phoneDto.getNumber());
+        phone.setCityCode(phoneDto.getCityCode());
+        phone.setCountryCode(phoneDto.getCountryCode());
+        phone.setUser(user);
+        return phone;
+    }
+
+    /**
+     * Updates the phones of the user in place by natural key: phones no longer requested are
+     * removed (and deleted as orphans), new ones are added and unchanged ones are left untouched,
+     * so a PUT only writes the rows that actually changed.
+     */
+    private void mergePhones(User user, Set<PhoneDto> phoneDtos) {
+
+        Set<String> requested = new HashSet<>();
+        if ( phoneDtos != null ) {
+            for ( PhoneDto phoneDto : phoneDtos ) {
+                requested.add(Phone.naturalKey(phoneDto.getNumber(), phoneDto.getCityCode(), phoneDto.getCountryCode()));
+            }
+        }
+
+        if ( user.getPhones() == null ) {
+            user.setPhones(new LinkedHashSet<>());
+        }
+
+        Set<String> kept = new HashSet<>();
+        user.getPhones().removeIf(phone -> !requested.contains(phone.naturalKey()) || !kept.add(phone.naturalKey()));
+
+        if ( phoneDtos == null ) {
+            return;
+        }
+
+        for ( PhoneDto phoneDto : phoneDtos ) {
+            if ( kept.add(Phone.naturalKey(phoneDto.getNumber(), phoneDto.getCityCode(), phoneDto.getCountryCode())) ) {
+                user.getPhones().add(toPhone(phoneDto, user));
+            }
+        }
+    }
+
+    private Set<PhoneDto> toPhoneDtos(Set<Phone> phones) {
+
+        if ( phones == null ) {
+            return null;
+        }
+
+        Set<PhoneDto> phoneDtos = new LinkedHashSet<>(Math.max(4, phones.size() * 2));
+        for ( Phone phone : phones ) {
+            phoneDtos.add(new PhoneDto(phone.getNumber(), phone.getCityCode(), phone.getCountryCode()));
+        }
+        return phoneDtos;
     }
 
     public UUID toUUID(String id) {
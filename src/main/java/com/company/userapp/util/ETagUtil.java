@@ -0,0 +1,67 @@
+package com.company.userapp.util;
+
+import java.time.Instant;
+
+public class ETagUtil {
+
+    private ETagUtil() {
+
+    }
+
+    /**
+     * Strong ETag of a user representation, led by the entity version so {@code If-Match} can be
+     * turned back into a version. It also changes when the user logs in, which alters the body
+     * without a version bump. Timestamps are truncated to milliseconds so an entity still in
+     * memory and one read back from the database yield the same tag.
+     */
+    public static String userETag(long version, Instant modified, Instant lastLogin) {
+        return "\"" + Long.toHexString(version) + "-" + Long.toHexString(millis(modified))
+                + "-" + Long.toHexString(millis(lastLogin)) + "\"";
+    }
+
+    /**
+     * The user version carried by a strong {@code If-Match} tag, or null when the header is not a
+     * single strong user tag.
+     */
+    public static Long version(String ifMatch) {
+
+        String tag = ifMatch.trim();
+        int end = tag.indexOf('-');
+        if ( tag.length() < 3 || tag.charAt(0) != '"' || tag.charAt(tag.length() - 1) != '"' || end < 2 ) {
+            return null;
+        }
+
+        try {
+            return Long.parseUnsignedLong(tag.substring(1, end), 16);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Whether an {@code If-None-Match} header value (a single tag, a comma separated list or
+     * {@code *}) matches the current tag. Weak tags are compared by their opaque value.
+     */
+    public static boolean matches(String ifNoneMatch, String eTag) {
+
+        if ( ifNoneMatch == null || eTag == null ) {
+            return false;
+        }
+
+        for ( String candidate : ifNoneMatch.split(",") ) {
+            String tag = candidate.trim();
+            if ( tag.startsWith("W/") ) {
+                tag = tag.substring(2);
+            }
+            if ( tag.equals("*") || tag.equals(eTag) ) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static long millis(Instant instant) {
+        return instant == null ? 0 : instant.toEpochMilli();
+    }
+
+}
@@ -1,12 +1,6 @@
 package com.company.userapp.util;
 
 import com.company.userapp.exception.ForbiddenException;
-import io.jsonwebtoken.Claims;
-import io.jsonwebtoken.Jwts;
-import io.jsonwebtoken.SignatureAlgorithm;
-
-import java.nio.charset.StandardCharsets;
-import java.util.Date;
 
 public class JWTUtil {
 
@@ -17,19 +11,51 @@ public class JWTUtil {
 
     }
 
-    public static String generateJwtToken(String sub, String secret) {
+    public static void isValidToken(String bearer, String token) {
 
-        return Jwts.builder()
-                .setSubject(sub)
-                .setIssuedAt(new Date(System.currentTimeMillis()))
-                .signWith(SignatureAlgorithm.HS512, secret)
-                .compact();
+        if ( !matchesToken(bearer, token) ) {
+            throw new ForbiddenException("Forbidden request");
+        }
     }
 
-    public static void isValidToken(String bearer, String token) {
+    public static String extractToken(String bearer) {
 
-        if ( !bearer.replace(TOKEN_PREFIX, "").trim().equals(token) ) {
-            throw new ForbiddenException("Forbidden request");
+        if ( bearer == null ) {
+            return null;
+        }
+
+        String token = (bearer.startsWith(TOKEN_PREFIX) ? bearer.substring(TOKEN_PREFIX.length()) : bearer).trim();
+
+        return token.isEmpty() ? null : token;
+    }
+
+    /**
+     * Compares the bearer (with or without the {@code Bearer } prefix and surrounding whitespace)
+     * against the stored token in place, without allocating and in time that depends only on the
+     * stored token length.
+     */
+    public static boolean matchesToken(String bearer, String token) {
+
+        if ( bearer == null || token == null ) {
+            return false;
+        }
+
+        int start = bearer.startsWith(TOKEN_PREFIX) ? TOKEN_PREFIX.length() : 0;
+        int end = bearer.length();
+        while ( start < end && bearer.charAt(start) <= ' ' ) {
+            start++;
         }
+        while ( end > start && bearer.charAt(end - 1) <= ' ' ) {
+            end--;
+        }
+
+        int length = end - start;
+        int diff = length ^ token.length();
+        for ( int i = 0; i < token.length(); i++ ) {
+            int c = i < length ? bearer.charAt(start + i) : 0;
+            diff |= c ^ token.charAt(i);
+        }
+
+        return diff == 0;
     }
 }
@@ -0,0 +1,44 @@
+package com.company.userapp.util;
+
+import java.nio.ByteBuffer;
+import java.util.UUID;
+
+public class UUIDUtil {
+
+    private UUIDUtil() {
+
+    }
+
+    /**
+     * UUIDv7-style id: the 48 leading bits are the Unix time in milliseconds, followed by the
+     * version and the random bits of a v4 UUID. Ids created later sort after earlier ones, so new
+     * rows are appended to the end of the primary key index instead of scattered across it.
+     */
+    public static UUID timeOrdered() {
+        return timeOrdered(System.currentTimeMillis());
+    }
+
+    static UUID timeOrdered(long epochMillis) {
+
+        UUID random = UUID.randomUUID();
+        long mostSignificant = (epochMillis << 16) | 0x7000L | (random.getMostSignificantBits() & 0x0FFFL);
+
+        return new UUID(mostSignificant, random.getLeastSignificantBits());
+    }
+
+    /**
+     * The 16 bytes stored in a {@code binary(16)} id column, most significant first.
+     */
+    public static byte[] toBytes(UUID uuid) {
+        return ByteBuffer.allocate(16)
+                .putLong(uuid.getMostSignificantBits())
+                .putLong(uuid.getLeastSignificantBits())
+                .array();
+    }
+
+    public static UUID fromBytes(byte[] bytes) {
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        return new UUID(buffer.getLong(), buffer.getLong());
+    }
+
+}
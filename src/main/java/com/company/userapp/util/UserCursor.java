@@ -0,0 +1,46 @@
+package com.company.userapp.util;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.nio.charset.StandardCharsets;
+import java.time.DateTimeException;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.UUID;
+
+/**
+ * Position of the last user of a listing page, ordered by creation date and then id. It is sent
+ * to clients as an opaque URL-safe token and resumes the listing with a seek instead of an offset.
+ */
+@Getter
+@AllArgsConstructor
+public class UserCursor {
+
+    private final Instant created;
+
+    private final UUID id;
+
+    public String encode() {
+        String position = created.getEpochSecond() + "." + created.getNano() + "." + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(position.getBytes(StandardCharsets.US_ASCII));
+    }
+
+    /**
+     * The cursor carried by a token produced by {@link #encode()}, or null when the token is not one.
+     */
+    public static UserCursor decode(String token) {
+
+        try {
+            String[] position = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.US_ASCII).split("\\.", 3);
+            if ( position.length != 3 ) {
+                return null;
+            }
+            return new UserCursor(Instant.ofEpochSecond(Long.parseLong(position[0]), Long.parseLong(position[1])),
+                    UUID.fromString(position[2]));
+        } catch (IllegalArgumentException | DateTimeException e) {
+            return null;
+        }
+    }
+
+}
@@ -25,6 +25,6 @@ public class EmailValidator implements ConstraintValidator<Email, String> {
     @Override
     public boolean isValid(String s, ConstraintValidatorContext constraintValidatorContext) {
 
-        return emailPattern.matcher(s).reset().matches();
+        return s == null || emailPattern.matcher(s).reset().matches();
     }
 }
@@ -22,6 +22,6 @@ public class PasswordValidator implements ConstraintValidator<Password, String>
     @Override
     public boolean isValid(String s, ConstraintValidatorContext constraintValidatorContext) {
 
-        return passwordPattern.matcher(s).reset().matches();
+        return s == null || passwordPattern.matcher(s).reset().matches();
     }
 }
@@ -0,0 +1,130 @@
+package com.company.userapp.cache;
+
+import com.company.userapp.UserappServiceApplication;
+import com.company.userapp.dto.model.UserDto;
+import com.company.userapp.dto.model.UserPatchDto;
+import com.company.userapp.dto.response.UserResponse;
+import com.company.userapp.exception.NotFoundException;
+import com.company.userapp.security.RegisteredEmailFilter;
+import com.company.userapp.service.UserService;
+import com.company.userapp.util.JWTUtil;
+import com.company.userapp.util.UtilTest;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Two application contexts sharing one database act as two nodes: a write on one node must not
+ * leave the other serving a stale user once it has polled the invalidation table.
+ */
+public class JdbcInvalidationBusIntegrationTest {
+
+    private ConfigurableApplicationContext first;
+
+    private ConfigurableApplicationContext second;
+
+    @BeforeEach
+    public void setup() {
+        first = node("create-drop");
+        second = node("none");
+    }
+
+    private ConfigurableApplicationContext node(String ddl) {
+        return new SpringApplicationBuilder(UserappServiceApplication.class).run(
+                "--server.port=0",
+                "--spring.datasource.url=jdbc:h2:mem:invalidation;DB_CLOSE_DELAY=-1",
+                "--spring.jpa.hibernate.ddl-auto=" + ddl,
+                "--user.cache.invalidation.bus=jdbc",
+                "--user.cache.invalidation.poll-interval=3600000",
+                "--user.password.bcrypt.strength=4");
+    }
+
+    @Test
+    public void givenChangesOnOneNodeThenOtherNodeDropsItsCachedCopies() throws Exception {
+
+        UserDto userDto = UtilTest.buildUserDto();
+        userDto.setEmail("node_invalidation@domain.cl");
+        UserResponse created = first.getBean(UserService.class).create(userDto);
+        String bearer = JWTUtil.TOKEN_PREFIX + created.getToken();
+
+        Assertions.assertFalse(second.getBean(RegisteredEmailFilter.class).mightContain(created.getEmail()));
+        poll(second);
+        Assertions.assertTrue(second.getBean(RegisteredEmailFilter.class).mightContain(created.getEmail()));
+
+        Assertions.assertEquals(created.getName(), name(second, created.getId(), bearer));
+
+        first.getBean(UserService.class).patch(created.getId(), new UserPatchDto("Juan Other Node", null, null, null), bearer, null);
+        Assertions.assertEquals(created.getName(), name(second, created.getId(), bearer));
+        poll(second);
+        Assertions.assertEquals("Juan Other Node", name(second, created.getId(), bearer));
+
+        first.getBean(UserService.class).delete(created.getId(), bearer);
+        poll(second);
+        Assertions.assertThrows(NotFoundException.class, () -> name(second, created.getId(), bearer));
+    }
+
+    @Test
+    public void givenInvalidationCommittedAfterANewerOneThenOtherNodeStillAppliesItOnce() throws Exception {
+
+        List<String> emails = new CopyOnWriteArrayList<>();
+        second.getBean(JdbcInvalidationBus.class).subscribe(invalidation -> emails.add(invalidation.getEmail()));
+        JdbcInvalidationBus bus = first.getBean(JdbcInvalidationBus.class);
+
+        CountDownLatch published = new CountDownLatch(1);
+        CountDownLatch polled = new CountDownLatch(1);
+        TransactionTemplate transaction = new TransactionTemplate(first.getBean(PlatformTransactionManager.class));
+        CompletableFuture<Void> slow = CompletableFuture.runAsync(() -> transaction.executeWithoutResult(status -> {
+            bus.publish(List.of(UserInvalidation.emailRegistered("node_slow@domain.cl")));
+            published.countDown();
+            await(polled);
+        }));
+
+        await(published);
+        bus.publish(List.of(UserInvalidation.emailRegistered("node_fast@domain.cl")));
+        poll(second);
+        Assertions.assertEquals(List.of("node_fast@domain.cl"), emails);
+
+        polled.countDown();
+        slow.get(10, TimeUnit.SECONDS);
+        poll(second);
+        poll(second);
+        Assertions.assertEquals(List.of("node_fast@domain.cl", "node_slow@domain.cl"), emails);
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            Assertions.assertTrue(latch.await(10, TimeUnit.SECONDS));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static void poll(ConfigurableApplicationContext node) {
+        node.getBean(JdbcInvalidationBus.class).poll();
+    }
+
+    private static String name(ConfigurableApplicationContext node, String id, String bearer) throws Exception {
+        byte[] body = node.getBean(UserService.class).findSerializedById(id, bearer).getBody();
+        return new ObjectMapper().readTree(body).get("name").asText();
+    }
+
+    @AfterEach
+    public void clean() {
+        second.close();
+        first.close();
+    }
+
+}
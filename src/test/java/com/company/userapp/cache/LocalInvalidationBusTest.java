@@ -0,0 +1,47 @@
+package com.company.userapp.cache;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+public class LocalInvalidationBusTest {
+
+    @Test
+    public void givenTwoNodesThenDeliverOnlyToTheOtherNode() {
+
+        LocalInvalidationBus first = new LocalInvalidationBus("local-bus-test");
+        LocalInvalidationBus second = new LocalInvalidationBus("local-bus-test");
+        List<UserInvalidation> firstReceived = new ArrayList<>();
+        List<UserInvalidation> secondReceived = new ArrayList<>();
+        first.subscribe(firstReceived::add);
+        second.subscribe(secondReceived::add);
+
+        UserInvalidation invalidation = UserInvalidation.userChanged(UUID.randomUUID());
+        first.publish(List.of(invalidation));
+
+        Assertions.assertTrue(firstReceived.isEmpty());
+        Assertions.assertEquals(List.of(invalidation), secondReceived);
+
+        first.destroy();
+        second.destroy();
+    }
+
+    @Test
+    public void givenDestroyedNodeThenStopDelivering() {
+
+        LocalInvalidationBus first = new LocalInvalidationBus("local-bus-destroy-test");
+        LocalInvalidationBus second = new LocalInvalidationBus("local-bus-destroy-test");
+        List<UserInvalidation> received = new ArrayList<>();
+        second.subscribe(received::add);
+
+        second.destroy();
+        first.publish(List.of(UserInvalidation.emailRegistered("juan@rodriguez.org")));
+
+        Assertions.assertTrue(received.isEmpty());
+        first.destroy();
+    }
+
+}
@@ -1,11 +1,15 @@
 package com.company.userapp.controller;
 
 import com.company.userapp.dto.model.AppUserDto;
+import com.company.userapp.dto.model.PhoneDto;
 import com.company.userapp.dto.model.UserDto;
 
 import com.company.userapp.model.User;
 import com.company.userapp.repository.UserRepository;
+import com.company.userapp.security.OperationsKeyFilter;
+import com.company.userapp.service.LastLoginRecorder;
 import com.company.userapp.service.mapper.UserMapper;
+import com.company.userapp.util.ETagUtil;
 import com.company.userapp.util.JWTUtil;
 import com.company.userapp.util.UtilTest;
 import com.fasterxml.jackson.databind.ObjectMapper;
@@ -16,6 +20,7 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.http.*;
 
@@ -23,14 +28,17 @@ import org.springframework.security.web.FilterChainProxy;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 
 import org.springframework.web.context.WebApplicationContext;
 
 import javax.annotation.Resource;
+import java.time.Duration;
 import java.util.*;
 
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @ExtendWith(SpringExtension.class)
@@ -46,9 +54,18 @@ public class UserControllerIntegrationTest {
     @Autowired
     private UserMapper userMapper;
 
+    @Autowired
+    private LastLoginRecorder lastLoginRecorder;
+
     @Resource
     private FilterChainProxy springSecurityFilterChain;
 
+    @Value("${user.operations.key}")
+    private String operationsKey;
+
+    @Value("${spring.mvc.async.request-timeout}")
+    private Duration exportTimeout;
+
     private MockMvc mockMvc;
 
     private UserDto userDto;
@@ -182,6 +199,56 @@ public class UserControllerIntegrationTest {
 
     }
 
+    @Test
+    public void findByIdWithCurrentETagThenReturnNotModified() throws Exception {
+
+        User _user = savingUser("testing_findbyid_etag@domain.cl");
+
+        MvcResult result = mockMvc.perform(
+                        get("/users/{id}", _user.getId().toString())
+                                .header(HttpHeaders.AUTHORIZATION, String.format("Bearer %s", _user.getToken())))
+                .andExpect(status().isOk())
+                .andReturn();
+
+        String eTag = result.getResponse().getHeader(HttpHeaders.ETAG);
+        Assertions.assertNotNull(eTag);
+
+        mockMvc.perform(
+                        get("/users/{id}", _user.getId().toString())
+                                .header(HttpHeaders.AUTHORIZATION, String.format("Bearer %s", _user.getToken()))
+                                .header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isNotModified());
+    }
+
+    @Test
+    public void findByIdWithStaleETagAfterUpdateThenReturnOk() throws Exception {
+
+        User _user = savingUser("testing_findbyid_stale_etag@domain.cl");
+        String eTag = ETagUtil.userETag(_user.getVersion(), _user.getModified(), _user.getLastLogin());
+
+        mockMvc.perform(
+                        get("/users/{id}", _user.getId().toString())
+                                .header(HttpHeaders.AUTHORIZATION, String.format("Bearer %s", _user.getToken()))
+                                .header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isNotModified());
+
+        mockMvc.perform(
+                        put("/users/{id}", _user.getId().toString())
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .header(JWTUtil.HEADER_AUTHORIZATION, String.format("Bearer %s", _user.getToken()))
+                                .content(new ObjectMapper().writeValueAsString(userDto)))
+                .andExpect(status().isOk());
+
+        MvcResult result = mockMvc.perform(
+                        get("/users/{id}", _user.getId().toString())
+                                .header(HttpHeaders.AUTHORIZATION, String.format("Bearer %s", _user.getToken()))
+                                .header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isOk())
+                .andReturn();
+
+        Assertions.assertNotEquals(eTag, result.getResponse().getHeader(HttpHeaders.ETAG));
+    }
+
     @Test
     public void findByIdThenReturnNotFoundException() throws Exception {
 
@@ -244,6 +311,86 @@ public class UserControllerIntegrationTest {
                 .andExpect(status().isNotFound());
     }
 
+    @Test
+    public void updateWithIfMatchThenApplyOnceAndRejectStaleVersion() throws Exception {
+
+        User _user = savingUser("testing_update_if_match@domain.cl");
+        String eTag = ETagUtil.userETag(_user.getVersion(), _user.getModified(), _user.getLastLogin());
+        userDto.setPhones(Set.of(new PhoneDto("7654321", "2", "56")));
+
+        MvcResult result = mockMvc.perform(
+                        put("/users/{id}", _user.getId().toString())
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .header(JWTUtil.HEADER_AUTHORIZATION, String.format("Bearer %s", _user.getToken()))
+                                .header(HttpHeaders.IF_MATCH, eTag)
+                                .content(new ObjectMapper().writeValueAsString(userDto)))
+                .andExpect(status().isOk())
+                .andReturn();
+
+        List<String> numbers = JsonPath.parse(result.getResponse().getContentAsString()).read("$.phones[*].number");
+        Assertions.assertEquals(List.of("7654321"), numbers);
+        Assertions.assertEquals(_user.getVersion() + 1, userRepository.findVersionById(_user.getId()).orElseThrow().getVersion());
+
+        mockMvc.perform(
+                        put("/users/{id}", _user.getId().toString())
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .header(JWTUtil.HEADER_AUTHORIZATION, String.format("Bearer %s", _user.getToken()))
+                                .header(HttpHeaders.IF_MATCH, eTag)
+                                .content(new ObjectMapper().writeValueAsString(userDto)))
+                .andExpect(status().isPreconditionFailed());
+    }
+
+    @Test
+    public void updateWithIfMatchAndOtherTokenThenReturnForbidden() throws Exception {
+
+        User _user = savingUser("testing_update_if_match_forbidden@domain.cl");
+        User other = savingUser("testing_update_if_match_other@domain.cl");
+        userDto.setEmail("testing_update_if_match_forbidden@domain.cl");
+
+        mockMvc.perform(
+                        put("/users/{id}", _user.getId().toString())
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .header(JWTUtil.HEADER_AUTHORIZATION, String.format("Bearer %s", other.getToken()))
+                                .header(HttpHeaders.IF_MATCH, ETagUtil.userETag(_user.getVersion(), _user.getModified(), _user.getLastLogin()))
+                                .content(new ObjectMapper().writeValueAsString(userDto)))
+                .andExpect(status().isForbidden());
+    }
+
+    @Test
+    public void patchNameThenKeepPasswordAndPhones() throws Exception {
+
+        User _user = savingUser("testing_patch@domain.cl");
+
+        MvcResult result = mockMvc.perform(
+                        patch("/users/{id}", _user.getId().toString())
+                                .contentType(UserControllerApi.MERGE_PATCH_JSON_VALUE)
+                                .header(JWTUtil.HEADER_AUTHORIZATION, String.format("Bearer %s", _user.getToken()))
+                                .content("{\"name\":\"Juan Patched\"}"))
+                .andExpect(status().isOk())
+                .andReturn();
+
+        Assertions.assertEquals("Juan Patched", JsonPath.parse(result.getResponse().getContentAsString()).read("$.name"));
+        Assertions.assertEquals("testing_patch@domain.cl", JsonPath.parse(result.getResponse().getContentAsString()).read("$.email"));
+
+        User patched = userRepository.findWithPhonesById(_user.getId()).orElseThrow();
+        Assertions.assertEquals(_user.getPassword(), patched.getPassword());
+        Assertions.assertEquals(_user.getPhones().size(), patched.getPhones().size());
+        Assertions.assertEquals(_user.getVersion() + 1, patched.getVersion());
+    }
+
+    @Test
+    public void patchWithInvalidEmailThenReturnBadRequest() throws Exception {
+
+        User _user = savingUser("testing_patch_invalid@domain.cl");
+
+        mockMvc.perform(
+                        patch("/users/{id}", _user.getId().toString())
+                                .contentType(UserControllerApi.MERGE_PATCH_JSON_VALUE)
+                                .header(JWTUtil.HEADER_AUTHORIZATION, String.format("Bearer %s", _user.getToken()))
+                                .content("{\"email\":\"not-an-email\"}"))
+                .andExpect(status().isBadRequest());
+    }
+
     @Test
     public void deleteThenReturnNotContent() throws Exception {
 
@@ -279,4 +426,217 @@ public class UserControllerIntegrationTest {
                 .andExpect(status().isBadRequest());
     }
 
+    @Test
+    public void createBatchThenReturnStatusPerUser() throws Exception {
+
+        User _user = savingUser("testing_batch_owner@domain.cl");
+
+        UserDto created = UtilTest.buildUserDto();
+        created.setEmail("testing_batch_created@domain.cl");
+        UserDto registered = UtilTest.buildUserDto();
+        registered.setEmail(_user.getEmail());
+        UserDto invalid = UtilTest.buildUserDto();
+        invalid.setEmail("not-an-email");
+        UserDto repeated = UtilTest.buildUserDto();
+        repeated.setEmail(created.getEmail());
+
+        MvcResult result = mockMvc.perform(
+                        post("/users/batch")
+                                .header(OperationsKeyFilter.HEADER_OPERATIONS_KEY, operationsKey)
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(new ObjectMapper().writeValueAsString(List.of(created, registered, invalid, repeated))))
+                .andExpect(status().isOk())
+                .andReturn();
+
+        String content = result.getResponse().getContentAsString();
+        List<Integer> statuses = JsonPath.parse(content).read("$[*].status");
+        Assertions.assertEquals(List.of(201, 409, 400, 409), statuses);
+
+        String id = JsonPath.parse(content).read("$[0].user.id");
+        User saved = userRepository.findWithPhonesById(UUID.fromString(id)).orElseThrow();
+        Assertions.assertEquals(created.getEmail(), saved.getEmail());
+        Assertions.assertEquals(created.getPhones().size(), saved.getPhones().size());
+
+        mockMvc.perform(
+                        get("/users/{id}", id)
+                                .header(HttpHeaders.AUTHORIZATION, String.format("Bearer %s", saved.getToken())))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    public void createEmptyBatchThenReturnBadRequest() throws Exception {
+
+        mockMvc.perform(
+                        post("/users/batch")
+                                .header(OperationsKeyFilter.HEADER_OPERATIONS_KEY, operationsKey)
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content("[]"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    public void createBatchWithUserTokenThenReturnForbidden() throws Exception {
+
+        User _user = savingUser("testing_batch_forbidden@domain.cl");
+        UserDto created = UtilTest.buildUserDto();
+        created.setEmail("testing_batch_not_created@domain.cl");
+
+        mockMvc.perform(
+                        post("/users/batch")
+                                .header(HttpHeaders.AUTHORIZATION, String.format("Bearer %s", _user.getToken()))
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(new ObjectMapper().writeValueAsString(List.of(created))))
+                .andExpect(status().isForbidden());
+
+        Assertions.assertNull(userRepository.findByEmail(created.getEmail()));
+    }
+
+    @Test
+    public void listUsersThenReturnPagesByCursor() throws Exception {
+
+        savingUser("testing_list_1@domain.cl");
+        userDto = UtilTest.buildUserDto();
+        savingUser("testing_list_2@domain.cl");
+        userDto = UtilTest.buildUserDto();
+        savingUser("testing_list_3@domain.cl");
+
+        MvcResult first = mockMvc.perform(
+                        get("/users")
+                                .param("email", "testing_list_")
+                                .param("limit", "2")
+                                .header(OperationsKeyFilter.HEADER_OPERATIONS_KEY, operationsKey))
+                .andExpect(status().isOk())
+                .andReturn();
+
+        String firstPage = first.getResponse().getContentAsString();
+        List<String> ids = new ArrayList<>(JsonPath.parse(firstPage).read("$.users[*].id"));
+        Assertions.assertEquals(2, ids.size());
+        Assertions.assertTrue(JsonPath.parse(firstPage).<List<String>>read("$.users[*].token").isEmpty());
+
+        MvcResult second = mockMvc.perform(
+                        get("/users")
+                                .param("email", "testing_list_")
+                                .param("limit", "2")
+                                .param("cursor", JsonPath.parse(firstPage).<String>read("$.next"))
+                                .header(OperationsKeyFilter.HEADER_OPERATIONS_KEY, operationsKey))
+                .andExpect(status().isOk())
+                .andReturn();
+
+        String secondPage = second.getResponse().getContentAsString();
+        ids.addAll(JsonPath.parse(secondPage).read("$.users[*].id"));
+        Assertions.assertEquals(3, new HashSet<>(ids).size());
+        Assertions.assertFalse(secondPage.contains("\"next\""));
+    }
+
+    @Test
+    public void listUsersWithInvalidCursorThenReturnBadRequest() throws Exception {
+
+        mockMvc.perform(
+                        get("/users")
+                                .param("cursor", "not a cursor")
+                                .header(OperationsKeyFilter.HEADER_OPERATIONS_KEY, operationsKey))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    public void listUsersWithUserTokenThenReturnForbidden() throws Exception {
+
+        User _user = savingUser("testing_list_forbidden@domain.cl");
+
+        mockMvc.perform(
+                        get("/users")
+                                .header(HttpHeaders.AUTHORIZATION, String.format("Bearer %s", _user.getToken())))
+                .andExpect(status().isForbidden());
+
+        mockMvc.perform(
+                        get("/users")
+                                .header(HttpHeaders.AUTHORIZATION, String.format("Bearer %s", _user.getToken()))
+                                .header(OperationsKeyFilter.HEADER_OPERATIONS_KEY, "not the key"))
+                .andExpect(status().isForbidden());
+    }
+
+    @Test
+    public void exportUsersThenStreamOneLinePerUser() throws Exception {
+
+        savingUser("testing_export_1@domain.cl");
+        userDto = UtilTest.buildUserDto();
+        savingUser("testing_export_2@domain.cl");
+        // write logins recorded by earlier tests now, not between the two exports compared below
+        lastLoginRecorder.flush();
+
+        List<String> lines = export(null);
+        List<String> ids = new ArrayList<>();
+        for ( String line : lines ) {
+            Map<String, Object> exported = JsonPath.parse(line).read("$");
+            ids.add((String) exported.get("id"));
+            Assertions.assertFalse(exported.containsKey("token"));
+            Assertions.assertFalse(exported.containsKey("password"));
+        }
+
+        Assertions.assertEquals(new ArrayList<>(new TreeSet<>(ids)), ids);
+        Assertions.assertTrue(lines.stream().anyMatch(line -> line.contains("testing_export_1@domain.cl")
+                && JsonPath.parse(line).<List<?>>read("$.phones").size() == userDto.getPhones().size()));
+        Assertions.assertTrue(lines.stream().anyMatch(line -> line.contains("testing_export_2@domain.cl")));
+
+        List<String> resumed = export(ids.get(0));
+        Assertions.assertEquals(lines.subList(1, lines.size()), resumed);
+    }
+
+    @Test
+    public void exportUsersThenOutliveTheContainerAsyncTimeout() throws Exception {
+
+        MvcResult started = mockMvc.perform(
+                        get("/users/export")
+                                .header(OperationsKeyFilter.HEADER_OPERATIONS_KEY, operationsKey))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        Assertions.assertEquals(Duration.ofHours(1), exportTimeout);
+        Assertions.assertEquals(exportTimeout.toMillis(), started.getRequest().getAsyncContext().getTimeout());
+        mockMvc.perform(asyncDispatch(started)).andExpect(status().isOk());
+    }
+
+    @Test
+    public void exportUsersWithInvalidIdThenReturnBadRequest() throws Exception {
+
+        mockMvc.perform(
+                        get("/users/export")
+                                .param("after", "not-an-id")
+                                .header(OperationsKeyFilter.HEADER_OPERATIONS_KEY, operationsKey))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    public void exportUsersWithUserTokenThenReturnForbidden() throws Exception {
+
+        User _user = savingUser("testing_export_forbidden@domain.cl");
+
+        mockMvc.perform(
+                        get("/users/export")
+                                .header(HttpHeaders.AUTHORIZATION, String.format("Bearer %s", _user.getToken())))
+                .andExpect(status().isForbidden());
+    }
+
+    private List<String> export(String after) throws Exception {
+
+        MockHttpServletRequestBuilder export = get("/users/export")
+                .header(OperationsKeyFilter.HEADER_OPERATIONS_KEY, operationsKey);
+        if ( after != null ) {
+            export.param("after", after);
+        }
+
+        MvcResult started = mockMvc.perform(export)
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        MvcResult result = mockMvc.perform(asyncDispatch(started))
+                .andExpect(status().isOk())
+                .andReturn();
+
+        Assertions.assertEquals(MediaType.APPLICATION_NDJSON_VALUE, result.getResponse().getContentType());
+        String content = result.getResponse().getContentAsString();
+        Assertions.assertTrue(content.isEmpty() || content.endsWith("\n"));
+        return content.isEmpty() ? List.of() : List.of(content.split("\n"));
+    }
+
 }
@@ -0,0 +1,136 @@
+package com.company.userapp.controller;
+
+import com.company.userapp.dto.model.UserDto;
+import com.company.userapp.model.User;
+import com.company.userapp.repository.UserRepository;
+import com.company.userapp.util.JWTUtil;
+import com.company.userapp.util.UtilTest;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.jayway.jsonpath.JsonPath;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.security.web.FilterChainProxy;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+import javax.annotation.Resource;
+import javax.persistence.EntityManagerFactory;
+import java.util.UUID;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@ExtendWith(SpringExtension.class)
+@SpringBootTest(properties = {
+        "user.authorization.mode=principal",
+        "spring.jpa.properties.hibernate.generate_statistics=true" })
+public class UserControllerPrincipalAuthorizationIntegrationTest {
+
+    @Autowired
+    private WebApplicationContext context;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Resource
+    private FilterChainProxy springSecurityFilterChain;
+
+    private MockMvc mockMvc;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    public void setup() {
+        this.mockMvc = MockMvcBuilders.webAppContextSetup(this.context).addFilters(this.springSecurityFilterChain).build();
+        this.statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    private String[] create(String email) throws Exception {
+        UserDto userDto = UtilTest.buildUserDto();
+        userDto.setEmail(email);
+
+        MvcResult result = mockMvc.perform(
+                        post("/users")
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(new ObjectMapper().writeValueAsString(userDto)))
+                .andExpect(status().isCreated())
+                .andReturn();
+
+        String body = result.getResponse().getContentAsString();
+        return new String[] { JsonPath.parse(body).read("$.id").toString(), JsonPath.parse(body).read("$.token").toString() };
+    }
+
+    @Test
+    public void findOwnUserThenReturnOk() throws Exception {
+
+        String[] owner = create("principal_findbyid@domain.cl");
+
+        mockMvc.perform(
+                        get("/users/{id}", owner[0])
+                                .header(JWTUtil.HEADER_AUTHORIZATION, JWTUtil.TOKEN_PREFIX + owner[1]))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    public void findOtherUserThenReturnForbiddenWithOutSql() throws Exception {
+
+        String[] owner = create("principal_owner@domain.cl");
+        String[] other = create("principal_other@domain.cl");
+
+        statistics.clear();
+
+        mockMvc.perform(
+                        get("/users/{id}", other[0])
+                                .header(JWTUtil.HEADER_AUTHORIZATION, JWTUtil.TOKEN_PREFIX + owner[1]))
+                .andExpect(status().isForbidden());
+        mockMvc.perform(
+                        delete("/users/{id}", other[0])
+                                .header(JWTUtil.HEADER_AUTHORIZATION, JWTUtil.TOKEN_PREFIX + owner[1]))
+                .andExpect(status().isForbidden());
+
+        Assertions.assertEquals(0, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    public void deleteOwnUserThenIssueSingleStatement() throws Exception {
+
+        String[] owner = create("principal_delete@domain.cl");
+
+        statistics.clear();
+
+        mockMvc.perform(
+                        delete("/users/{id}", owner[0])
+                                .header(JWTUtil.HEADER_AUTHORIZATION, JWTUtil.TOKEN_PREFIX + owner[1]))
+                .andExpect(status().isNoContent());
+
+        Assertions.assertEquals(1, statistics.getPrepareStatementCount());
+        Assertions.assertTrue(userRepository.findById(UUID.fromString(owner[0])).isEmpty());
+    }
+
+    @Test
+    public void deleteAlreadyRemovedUserThenReturnNotFound() throws Exception {
+
+        String[] owner = create("principal_removed@domain.cl");
+        User user = userRepository.findById(UUID.fromString(owner[0])).orElseThrow();
+        userRepository.delete(user);
+
+        mockMvc.perform(
+                        delete("/users/{id}", owner[0])
+                                .header(JWTUtil.HEADER_AUTHORIZATION, JWTUtil.TOKEN_PREFIX + owner[1]))
+                .andExpect(status().isNotFound());
+    }
+
+}
@@ -1,6 +1,7 @@
 package com.company.userapp.controller;
 
 import com.company.userapp.dto.model.UserDto;
+import com.company.userapp.dto.response.SerializedUserResponse;
 import com.company.userapp.dto.response.UserResponse;
 import com.company.userapp.exception.BadRequestException;
 import com.company.userapp.exception.ConflictException;
@@ -126,7 +127,8 @@ public class UserControllerTest {
 
     @Test
     public void whenFindByIdThenReturnOk() throws Exception {
-        Mockito.when(userService.findById(id, userResponse.getToken())).thenReturn(userResponse);
+        Mockito.when(userService.findSerializedById(id, userResponse.getToken())).thenReturn(
+                new SerializedUserResponse(new ObjectMapper().findAndRegisterModules().writeValueAsBytes(userResponse), "\"etag\""));
 
         MvcResult result = mockMvc.perform(
                         get("/users/{id}", id)
@@ -146,7 +148,7 @@ public class UserControllerTest {
     public void whenFindByIdThenThrowsBadRequestException() throws Exception {
 
         String id = String.format("%s-invalid", UUID.randomUUID().toString());
-        Mockito.when(userService.findById(id, userResponse.getToken())).thenThrow(BadRequestException.class);
+        Mockito.when(userService.findSerializedById(id, userResponse.getToken())).thenThrow(BadRequestException.class);
 
         mockMvc.perform(
                         get("/users/{id}", id)
@@ -159,7 +161,7 @@ public class UserControllerTest {
     public void whenFindByIdThenThrowsNotFoundException() throws Exception {
 
         String id = UUID.randomUUID().toString();
-        Mockito.when(userService.findById(id, userResponse.getToken())).thenThrow(NotFoundException.class);
+        Mockito.when(userService.findSerializedById(id, userResponse.getToken())).thenThrow(NotFoundException.class);
 
         mockMvc.perform(
                         get("/users/{id}", id)
@@ -172,7 +174,7 @@ public class UserControllerTest {
     @Test
     public void whenFindByIdThenThrowsInternalServerErrorException() throws Exception {
 
-        Mockito.when(userService.findById(id, userResponse.getToken())).thenThrow(InternalServerErrorException.class);
+        Mockito.when(userService.findSerializedById(id, userResponse.getToken())).thenThrow(InternalServerErrorException.class);
 
         mockMvc.perform(
                         get("/users/{id}", id)
@@ -187,7 +189,7 @@ public class UserControllerTest {
         userDto.setName("User Edit");
         userResponse.setName(userDto.getName());
 
-        Mockito.when(userService.update(id, userDto, userResponse.getToken())).thenReturn(userResponse);
+        Mockito.when(userService.update(id, userDto, userResponse.getToken(), null)).thenReturn(userResponse);
 
         MvcResult result = mockMvc.perform(
                         put("/users/{id}", id)
@@ -209,7 +211,7 @@ public class UserControllerTest {
     @Test
     public void whenUpdateUserThenReturnNotFoundException() throws Exception {
 
-        Mockito.when(userService.update(id, userDto, userResponse.getToken())).thenThrow(NotFoundException.class);
+        Mockito.when(userService.update(id, userDto, userResponse.getToken(), null)).thenThrow(NotFoundException.class);
 
         mockMvc.perform(
                         put("/users/{id}", id)
@@ -222,7 +224,7 @@ public class UserControllerTest {
     @Test
     public void whenUpdateUserThenReturnInternalServerErrorException() throws Exception {
 
-        Mockito.when(userService.update(id, userDto, userResponse.getToken())).thenThrow(InternalServerErrorException.class);
+        Mockito.when(userService.update(id, userDto, userResponse.getToken(), null)).thenThrow(InternalServerErrorException.class);
 
         mockMvc.perform(
                         put("/users/{id}", id)
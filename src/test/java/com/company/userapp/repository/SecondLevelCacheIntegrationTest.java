@@ -0,0 +1,176 @@
+package com.company.userapp.repository;
+
+import com.company.userapp.dto.model.UserDto;
+import com.company.userapp.model.Phone;
+import com.company.userapp.model.User;
+import com.company.userapp.service.LastLoginRecorder;
+import com.company.userapp.service.mapper.UserMapper;
+import com.company.userapp.util.UtilTest;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.hibernate.Cache;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+import javax.persistence.EntityManagerFactory;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Set;
+
+@ExtendWith(SpringExtension.class)
+@SpringBootTest(properties = { "spring.jpa.properties.hibernate.generate_statistics=true",
+        "spring.datasource.url=jdbc:h2:mem:statistics" })
+public class SecondLevelCacheIntegrationTest {
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private UserMapper userMapper;
+
+    @Autowired
+    private LastLoginRecorder lastLoginRecorder;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    public void setup() {
+        this.statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    private User savingUser(String email) {
+        UserDto userDto = UtilTest.buildUserDto();
+        userDto.setEmail(email);
+        return userRepository.save(userMapper.toUser(userDto));
+    }
+
+    @Test
+    public void givenWarmCacheThenFindWithPhonesByIdIssuesNoQuery() {
+
+        User user = savingUser("cache_find@domain.cl");
+        userRepository.findWithPhonesById(user.getId()).orElseThrow();
+        statistics.clear();
+
+        User found = userRepository.findWithPhonesById(user.getId()).orElseThrow();
+
+        Assertions.assertEquals(user.getPhones().size(), found.getPhones().size());
+        Assertions.assertEquals(0, statistics.getPrepareStatementCount());
+        Assertions.assertTrue(statistics.getSecondLevelCacheHitCount() > 0);
+        Assertions.assertFalse(meterRegistry.find("hibernate.second.level.cache.requests").meters().isEmpty());
+    }
+
+    @Test
+    public void givenRepeatedFindByEmailThenServeFromQueryCache() {
+
+        User user = savingUser("cache_email@domain.cl");
+        userRepository.findByEmail(user.getEmail());
+        statistics.clear();
+
+        User found = userRepository.findByEmail(user.getEmail());
+
+        Assertions.assertEquals(user.getId(), found.getId());
+        Assertions.assertEquals(1, statistics.getQueryCacheHitCount());
+        Assertions.assertEquals(0, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    public void givenConditionalUpdateThenCachedUserIsEvicted() {
+
+        User user = savingUser("cache_update@domain.cl");
+        userRepository.findWithPhonesById(user.getId()).orElseThrow();
+        userRepository.findByEmail(user.getEmail());
+
+        User changes = new User();
+        changes.setModified(Instant.now());
+        changes.setName("Juan Cached Edit");
+        changes.setEmail("cache_update_edit@domain.cl");
+        userRepository.updateIfMatches(user.getId(), null, null, changes);
+
+        Assertions.assertEquals("Juan Cached Edit", userRepository.findWithPhonesById(user.getId()).orElseThrow().getName());
+        Assertions.assertNull(userRepository.findByEmail(user.getEmail()));
+    }
+
+    @Test
+    public void givenConditionalUpdateThenOtherCachedUsersSurvive() {
+
+        User edited = savingUser("cache_edited@domain.cl");
+        User other = savingUser("cache_other@domain.cl");
+        userRepository.findWithPhonesById(edited.getId()).orElseThrow();
+        userRepository.findWithPhonesById(other.getId()).orElseThrow();
+
+        User changes = new User();
+        changes.setModified(Instant.now());
+        changes.setName("Juan Cached Edit");
+        changes.setPhones(Set.of());
+        userRepository.updateIfMatches(edited.getId(), null, null, changes);
+
+        Cache cache = entityManagerFactory.getCache().unwrap(Cache.class);
+        Assertions.assertFalse(cache.containsEntity(User.class, edited.getId()));
+        Assertions.assertTrue(cache.containsEntity(User.class, other.getId()));
+        Assertions.assertTrue(cache.containsCollection(User.class.getName() + ".phones", other.getId()));
+        Assertions.assertTrue(other.getPhones().stream().allMatch(phone -> cache.containsEntity(Phone.class, phone.getId())));
+    }
+
+    @Test
+    public void givenDeleteByIdAndTokenThenOtherCachedUsersSurvive() {
+
+        User deleted = savingUser("cache_deleted@domain.cl");
+        User other = savingUser("cache_other@domain.cl");
+        userRepository.findWithPhonesById(deleted.getId()).orElseThrow();
+        userRepository.findWithPhonesById(other.getId()).orElseThrow();
+
+        Assertions.assertEquals(1, userRepository.deleteByIdAndToken(deleted.getId(), deleted.getToken()));
+
+        Cache cache = entityManagerFactory.getCache().unwrap(Cache.class);
+        Assertions.assertFalse(cache.containsEntity(User.class, deleted.getId()));
+        Assertions.assertTrue(userRepository.findWithPhonesById(deleted.getId()).isEmpty());
+        Assertions.assertTrue(cache.containsEntity(User.class, other.getId()));
+    }
+
+    @Test
+    public void givenLastLoginFlushedThenCachedUserIsEvicted() {
+
+        User user = savingUser("cache_login@domain.cl");
+        userRepository.findWithPhonesById(user.getId()).orElseThrow();
+        Instant lastLogin = user.getLastLogin().plusSeconds(60).truncatedTo(ChronoUnit.MILLIS);
+
+        lastLoginRecorder.record(user.getId(), lastLogin);
+        lastLoginRecorder.flush();
+
+        Assertions.assertEquals(lastLogin, userRepository.findWithPhonesById(user.getId()).orElseThrow().getLastLogin());
+    }
+
+    @Test
+    public void givenBatchInsertThenCachedEmptyQueryResultIsEvicted() {
+
+        Assertions.assertNull(userRepository.findByEmail("cache_batch@domain.cl"));
+
+        UserDto userDto = UtilTest.buildUserDto();
+        userDto.setEmail("cache_batch@domain.cl");
+        userRepository.insertAll(List.of(userMapper.toUser(userDto)));
+
+        Assertions.assertNotNull(userRepository.findByEmail("cache_batch@domain.cl"));
+    }
+
+    @AfterEach
+    public void clean() {
+        userRepository.findAll().stream()
+                .filter(user -> user.getEmail().startsWith("cache_"))
+                .forEach(userRepository::delete);
+    }
+
+}
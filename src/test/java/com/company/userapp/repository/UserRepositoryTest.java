@@ -3,6 +3,7 @@ package com.company.userapp.repository;
 import com.company.userapp.exception.NotFoundException;
 import com.company.userapp.model.Phone;
 import com.company.userapp.model.User;
+import com.company.userapp.service.LastLoginRecorder;
 
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.Assertions;
@@ -15,6 +16,7 @@ import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
 
 import java.time.Instant;
+import java.time.temporal.ChronoUnit;
 import java.util.List;
 import java.util.Set;
 import java.util.UUID;
@@ -26,6 +28,9 @@ public class UserRepositoryTest {
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private LastLoginRecorder lastLoginRecorder;
+
     private User user;
 
     @BeforeEach
@@ -60,6 +65,13 @@ public class UserRepositoryTest {
         Assertions.assertEquals(user.getName(), "Juan Rodriguez");
     }
 
+    @Test
+    public void whenUserIsSavedThenIdIsTimeOrdered() {
+
+        Assertions.assertEquals(7, user.getId().version());
+        Assertions.assertTrue(Math.abs((user.getId().getMostSignificantBits() >>> 16) - System.currentTimeMillis()) < 60000);
+    }
+
     @Test
     public void whenFindUserByEmailThenReturnUser() {
 
@@ -204,6 +216,18 @@ public class UserRepositoryTest {
         Assertions.assertEquals(user.getName(), "Juan Rodriguez Edit");
     }
 
+    @Test
+    public void whenLastLoginIsFlushedThenUpdateUser() {
+
+        Instant lastLogin = user.getLastLogin().plusSeconds(60).truncatedTo(ChronoUnit.MILLIS);
+
+        lastLoginRecorder.record(user.getId(), lastLogin);
+        lastLoginRecorder.flush();
+
+        User found = userRepository.findById(user.getId()).orElseThrow();
+        Assertions.assertEquals(lastLogin, found.getLastLogin());
+    }
+
     @AfterEach
     public void clean() {
         userRepository.deleteById(user.getId());
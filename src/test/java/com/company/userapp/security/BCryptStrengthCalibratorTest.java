@@ -0,0 +1,20 @@
+package com.company.userapp.security;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+public class BCryptStrengthCalibratorTest {
+
+    @Test
+    public void givenLargeBudgetWhenCalibrateThenReturnMaxStrength() {
+        Assertions.assertEquals(6, BCryptStrengthCalibrator.calibrate(Duration.ofMinutes(1), 4, 6));
+    }
+
+    @Test
+    public void givenTinyBudgetWhenCalibrateThenReturnMinStrength() {
+        Assertions.assertEquals(4, BCryptStrengthCalibrator.calibrate(Duration.ofNanos(1), 4, 6));
+    }
+
+}
@@ -0,0 +1,79 @@
+package com.company.userapp.security;
+
+import com.company.userapp.repository.UserCredentials;
+import com.company.userapp.repository.UserRepository;
+import com.company.userapp.service.LastLoginRecorder;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+public class CustomAuthenticationProviderTest {
+
+    private PasswordEncoder passwordEncoder;
+
+    private PasswordHasher passwordHasher;
+
+    private UserRepository userRepository;
+
+    private RegisteredEmailFilter registeredEmailFilter;
+
+    private ExecutorService rehashWriter;
+
+    private CustomAuthenticationProvider authenticationProvider;
+
+    @BeforeEach
+    public void setup() {
+        passwordEncoder = Mockito.mock(PasswordEncoder.class);
+        passwordHasher = new PasswordHasher(passwordEncoder, 1, 1, new SimpleMeterRegistry());
+        userRepository = Mockito.mock(UserRepository.class);
+        registeredEmailFilter = Mockito.mock(RegisteredEmailFilter.class);
+        rehashWriter = Executors.newSingleThreadExecutor(runnable -> new Thread(runnable, "rehash-writer"));
+        authenticationProvider = new CustomAuthenticationProvider(userRepository, passwordHasher,
+                Mockito.mock(LastLoginRecorder.class), registeredEmailFilter, rehashWriter);
+    }
+
+    @AfterEach
+    public void clean() {
+        rehashWriter.shutdownNow();
+        passwordHasher.destroy();
+    }
+
+    @Test
+    public void givenLegacyHashThenWriteUpgradedHashOffTheHashingPool() throws Exception {
+
+        UUID id = UUID.randomUUID();
+        UserCredentials user = Mockito.mock(UserCredentials.class);
+        Mockito.when(user.getId()).thenReturn(id);
+        Mockito.when(user.getEmail()).thenReturn("rehash@domain.cl");
+        Mockito.when(user.getPassword()).thenReturn("{legacy}hash");
+        Mockito.when(user.getActive()).thenReturn(true);
+        Mockito.when(registeredEmailFilter.mightContain("rehash@domain.cl")).thenReturn(true);
+        Mockito.when(userRepository.findCredentialsByEmail("rehash@domain.cl")).thenReturn(Optional.of(user));
+        Mockito.when(passwordEncoder.matches("Password1", "{legacy}hash")).thenReturn(true);
+        Mockito.when(passwordEncoder.upgradeEncoding("{legacy}hash")).thenReturn(true);
+        Mockito.when(passwordEncoder.encode("Password1")).thenReturn("{bcrypt}hash");
+
+        CompletableFuture<String> writer = new CompletableFuture<>();
+        Mockito.when(userRepository.updatePassword(id, "{legacy}hash", "{bcrypt}hash")).thenAnswer(invocation -> {
+            writer.complete(Thread.currentThread().getName());
+            return 1;
+        });
+
+        authenticationProvider.authenticate(new UsernamePasswordAuthenticationToken("rehash@domain.cl", "Password1"));
+
+        Assertions.assertEquals("rehash-writer", writer.get(10, TimeUnit.SECONDS));
+    }
+
+}
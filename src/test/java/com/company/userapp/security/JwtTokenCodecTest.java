@@ -0,0 +1,90 @@
+package com.company.userapp.security;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.MalformedJwtException;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.SignatureException;
+import io.jsonwebtoken.UnsupportedJwtException;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Date;
+
+public class JwtTokenCodecTest {
+
+    private static final String SECRET = "SECRET_TOKEN_DEMO";
+
+    private JwtTokenCodec tokenCodec;
+
+    @BeforeEach
+    public void setup() {
+        tokenCodec = new JwtTokenCodec(SECRET, new ObjectMapper());
+    }
+
+    @Test
+    public void givenSignedSubjectThenVerifyReturnsSubject() {
+
+        String token = tokenCodec.sign("juan@rodriguez.org");
+
+        Assertions.assertEquals("juan@rodriguez.org", tokenCodec.verify(token));
+    }
+
+    @Test
+    public void givenSignedTokenThenJjwtParserAcceptsIt() {
+
+        String token = tokenCodec.sign("juan@rodriguez.org");
+
+        String subject = Jwts.parser().setSigningKey(SECRET).parseClaimsJws(token).getBody().getSubject();
+
+        Assertions.assertEquals("juan@rodriguez.org", subject);
+    }
+
+    @Test
+    public void givenJjwtTokenThenVerifyReturnsSubject() {
+
+        String token = Jwts.builder()
+                .setSubject("juan@rodriguez.org")
+                .setIssuedAt(new Date())
+                .signWith(SignatureAlgorithm.HS512, SECRET)
+                .compact();
+
+        Assertions.assertEquals("juan@rodriguez.org", tokenCodec.verify(token));
+    }
+
+    @Test
+    public void givenTokenSignedWithOtherSecretThenThrowsSignatureException() {
+
+        String token = new JwtTokenCodec("OTHER_SECRET_TOKEN", new ObjectMapper()).sign("juan@rodriguez.org");
+
+        Assertions.assertThrows(SignatureException.class, () -> tokenCodec.verify(token));
+    }
+
+    @Test
+    public void givenTamperedPayloadThenThrowsSignatureException() {
+
+        String token = tokenCodec.sign("juan@rodriguez.org");
+        String forged = tokenCodec.sign("admin@rodriguez.org");
+        String[] parts = token.split("\\.");
+        String tampered = parts[0] + "." + forged.split("\\.")[1] + "." + parts[2];
+
+        Assertions.assertThrows(SignatureException.class, () -> tokenCodec.verify(tampered));
+    }
+
+    @Test
+    public void givenUnsignedTokenThenThrowsUnsupportedJwtException() {
+
+        String token = Jwts.builder().setSubject("juan@rodriguez.org").compact();
+        String[] parts = token.split("\\.");
+
+        Assertions.assertThrows(UnsupportedJwtException.class, () -> tokenCodec.verify(parts[0] + "." + parts[1] + ".c2ln"));
+    }
+
+    @Test
+    public void givenMalformedTokenThenThrowsMalformedJwtException() {
+
+        Assertions.assertThrows(MalformedJwtException.class, () -> tokenCodec.verify("not-a-token"));
+    }
+
+}
@@ -0,0 +1,131 @@
+package com.company.userapp.security;
+
+import com.company.userapp.dto.model.AppUserDto;
+import com.company.userapp.dto.model.UserDto;
+import com.company.userapp.model.User;
+import com.company.userapp.repository.UserRepository;
+import com.company.userapp.service.mapper.UserMapper;
+import com.company.userapp.util.JWTUtil;
+import com.company.userapp.util.UtilTest;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.web.FilterChainProxy;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+import javax.annotation.Resource;
+import javax.persistence.EntityManagerFactory;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@ExtendWith(SpringExtension.class)
+@SpringBootTest(properties = { "spring.jpa.properties.hibernate.generate_statistics=true",
+        "spring.datasource.url=jdbc:h2:mem:statistics" })
+public class LoginIntegrationTest {
+
+    @Autowired
+    private WebApplicationContext context;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private UserMapper userMapper;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    @Resource
+    private FilterChainProxy springSecurityFilterChain;
+
+    private MockMvc mockMvc;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    public void setup() {
+        this.mockMvc = MockMvcBuilders.webAppContextSetup(this.context).addFilters(this.springSecurityFilterChain).build();
+        this.statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @Test
+    public void loginThenIssueSingleUserQueryAndReturnToken() throws Exception {
+
+        UserDto userDto = UtilTest.buildUserDto();
+        userDto.setEmail("login_single_query@domain.cl");
+        User user = userRepository.save(userMapper.toUser(userDto));
+
+        statistics.clear();
+
+        MvcResult result = mockMvc.perform(
+                        post("/login")
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(new ObjectMapper().writeValueAsString(new AppUserDto(user.getEmail(), userDto.getPassword()))))
+                .andExpect(status().isOk())
+                .andReturn();
+
+        Assertions.assertEquals(JWTUtil.TOKEN_PREFIX + user.getToken(), result.getResponse().getHeader(JWTUtil.HEADER_AUTHORIZATION));
+        Assertions.assertEquals(1, statistics.getQueryExecutionCount());
+        Assertions.assertEquals(1, statistics.getPrepareStatementCount());
+        Assertions.assertEquals(0, statistics.getCollectionFetchCount());
+        Assertions.assertEquals(0, statistics.getEntityUpdateCount());
+    }
+
+    @Test
+    public void loginWithUnknownEmailThenReturnUnauthorizedWithoutQueries() throws Exception {
+
+        statistics.clear();
+
+        mockMvc.perform(
+                        post("/login")
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(new ObjectMapper().writeValueAsString(new AppUserDto("unknown_login@domain.cl", "Password1"))))
+                .andExpect(status().isUnauthorized());
+
+        Assertions.assertEquals(0, statistics.getQueryExecutionCount());
+    }
+
+    @Test
+    public void loginWithLegacyHashThenUpgradeStoredHash() throws Exception {
+
+        UserDto userDto = UtilTest.buildUserDto();
+        userDto.setEmail("login_legacy_hash@domain.cl");
+        User user = userMapper.toUser(userDto);
+        String legacyHash = new BCryptPasswordEncoder(4).encode(userDto.getPassword());
+        user.setPassword(legacyHash);
+        user = userRepository.save(user);
+
+        mockMvc.perform(
+                        post("/login")
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(new ObjectMapper().writeValueAsString(new AppUserDto(user.getEmail(), userDto.getPassword()))))
+                .andExpect(status().isOk());
+
+        String stored = legacyHash;
+        for ( int attempt = 0; attempt < 50 && legacyHash.equals(stored); attempt++ ) {
+            Thread.sleep(100);
+            stored = userRepository.findById(user.getId()).orElseThrow().getPassword();
+        }
+
+        Assertions.assertTrue(stored.startsWith("{bcrypt}"));
+        Assertions.assertTrue(passwordEncoder.matches(userDto.getPassword(), stored));
+    }
+
+}
@@ -0,0 +1,86 @@
+package com.company.userapp.security;
+
+import com.company.userapp.exception.ServiceUnavailableException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+public class PasswordHasherTest {
+
+    private PasswordEncoder passwordEncoder;
+
+    private MeterRegistry meterRegistry;
+
+    private PasswordHasher passwordHasher;
+
+    @BeforeEach
+    public void setup() {
+        passwordEncoder = Mockito.mock(PasswordEncoder.class);
+        meterRegistry = new SimpleMeterRegistry();
+        passwordHasher = new PasswordHasher(passwordEncoder, 1, 1, meterRegistry);
+    }
+
+    @AfterEach
+    public void clean() {
+        passwordHasher.destroy();
+    }
+
+    @Test
+    public void givenPasswordThenEncodeOnHashingPoolAndRecordLatency() {
+
+        Mockito.when(passwordEncoder.encode("hunter2")).thenAnswer(invocation -> {
+            Assertions.assertTrue(Thread.currentThread().getName().startsWith("password-hasher-"));
+            return "x-password-x";
+        });
+        Mockito.when(passwordEncoder.matches("hunter2", "x-password-x")).thenReturn(true);
+
+        Assertions.assertEquals("x-password-x", passwordHasher.encode("hunter2"));
+        Assertions.assertTrue(passwordHasher.matches("hunter2", "x-password-x"));
+        Assertions.assertEquals(1, meterRegistry.get("password.hash").tag("operation", "encode").timer().count());
+        Assertions.assertEquals(1, meterRegistry.get("password.hash").tag("operation", "matches").timer().count());
+    }
+
+    @Test
+    public void givenSaturatedPoolThenThrowsServiceUnavailableException() throws Exception {
+
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Mockito.when(passwordEncoder.encode("hunter2")).thenAnswer(invocation -> {
+            started.countDown();
+            release.await();
+            return "x-password-x";
+        });
+
+        CompletableFuture<String> running = CompletableFuture.supplyAsync(() -> passwordHasher.encode("hunter2"));
+        Assertions.assertTrue(started.await(5, TimeUnit.SECONDS));
+        CompletableFuture<String> queued = CompletableFuture.supplyAsync(() -> passwordHasher.encode("hunter2"));
+        while ( meterRegistry.get("password.hash.queue.size").gauge().value() < 1 ) {
+            Thread.onSpinWait();
+        }
+
+        Assertions.assertThrows(ServiceUnavailableException.class, () -> passwordHasher.encode("hunter2"));
+        Assertions.assertEquals(1, meterRegistry.get("password.hash.rejected").counter().count());
+
+        release.countDown();
+        Assertions.assertEquals("x-password-x", running.get(5, TimeUnit.SECONDS));
+        Assertions.assertEquals("x-password-x", queued.get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void givenEncoderFailureThenRethrowCause() {
+
+        Mockito.when(passwordEncoder.encode("hunter2")).thenThrow(new IllegalArgumentException("invalid"));
+
+        Assertions.assertThrows(IllegalArgumentException.class, () -> passwordHasher.encode("hunter2"));
+    }
+
+}
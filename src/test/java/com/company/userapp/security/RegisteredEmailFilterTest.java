@@ -0,0 +1,48 @@
+package com.company.userapp.security;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class RegisteredEmailFilterTest {
+
+    private RegisteredEmailFilter emailFilter;
+
+    @BeforeEach
+    public void setup() {
+        emailFilter = new RegisteredEmailFilter(1000, 0.01);
+    }
+
+    @Test
+    public void givenFilterNotLoadedThenEveryEmailMightBeRegistered() {
+        Assertions.assertTrue(emailFilter.mightContain("juan@rodriguez.org"));
+    }
+
+    @Test
+    public void givenRegisteredEmailThenMightContainIgnoringCase() {
+
+        emailFilter.add("Juan@Rodriguez.org");
+        emailFilter.markLoaded();
+
+        Assertions.assertTrue(emailFilter.mightContain("juan@rodriguez.org"));
+    }
+
+    @Test
+    public void givenUnknownEmailsThenMostAreRejected() {
+
+        for ( int i = 0; i < 1000; i++ ) {
+            emailFilter.add("user" + i + "@domain.cl");
+        }
+        emailFilter.markLoaded();
+
+        int falsePositives = 0;
+        for ( int i = 0; i < 10000; i++ ) {
+            if ( emailFilter.mightContain("unknown" + i + "@domain.cl") ) {
+                falsePositives++;
+            }
+        }
+
+        Assertions.assertTrue(falsePositives < 300, "false positives: " + falsePositives);
+    }
+
+}
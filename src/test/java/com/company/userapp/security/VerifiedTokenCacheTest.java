@@ -0,0 +1,71 @@
+package com.company.userapp.security;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class VerifiedTokenCacheTest {
+
+    private AtomicLong clock;
+
+    private VerifiedTokenCache tokenCache;
+
+    @BeforeEach
+    public void setup() {
+        clock = new AtomicLong();
+        tokenCache = new VerifiedTokenCache(2, Duration.ofMinutes(1), clock::get);
+    }
+
+    @Test
+    public void givenCachedTokenThenReturnSubject() {
+
+        tokenCache.put("token-a", "juan@rodriguez.org");
+
+        Assertions.assertEquals("juan@rodriguez.org", tokenCache.getSubject("token-a"));
+        Assertions.assertEquals(1, tokenCache.getHitCount());
+        Assertions.assertEquals(0, tokenCache.getMissCount());
+    }
+
+    @Test
+    public void givenUnknownTokenThenReturnNull() {
+
+        Assertions.assertNull(tokenCache.getSubject("token-a"));
+        Assertions.assertEquals(1, tokenCache.getMissCount());
+    }
+
+    @Test
+    public void givenExpiredTokenThenReturnNullAndCountEviction() {
+
+        tokenCache.put("token-a", "juan@rodriguez.org");
+        clock.addAndGet(Duration.ofMinutes(1).toNanos());
+
+        Assertions.assertNull(tokenCache.getSubject("token-a"));
+        Assertions.assertEquals(0, tokenCache.size());
+        Assertions.assertEquals(1, tokenCache.getEvictionCount());
+    }
+
+    @Test
+    public void givenFullCacheThenEvictDownToMaxSize() {
+
+        tokenCache.put("token-a", "a@domain.cl");
+        tokenCache.put("token-b", "b@domain.cl");
+        tokenCache.getSubject("token-a");
+        tokenCache.put("token-c", "c@domain.cl");
+
+        Assertions.assertEquals(2, tokenCache.size());
+        Assertions.assertEquals(1, tokenCache.getEvictionCount());
+    }
+
+    @Test
+    public void givenInvalidatedTokenThenReturnNull() {
+
+        tokenCache.put("token-a", "juan@rodriguez.org");
+        tokenCache.invalidate("token-a");
+
+        Assertions.assertNull(tokenCache.getSubject("token-a"));
+    }
+
+}
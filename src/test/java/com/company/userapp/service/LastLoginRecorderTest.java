@@ -0,0 +1,85 @@
+package com.company.userapp.service;
+
+import com.company.userapp.cache.UserInvalidation;
+import com.company.userapp.util.UUIDUtil;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mockito;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+public class LastLoginRecorderTest {
+
+    private JdbcTemplate jdbcTemplate;
+
+    private UserCacheInvalidator cacheInvalidator;
+
+    private LastLoginRecorder lastLoginRecorder;
+
+    @BeforeEach
+    public void setup() {
+        jdbcTemplate = Mockito.mock(JdbcTemplate.class);
+        cacheInvalidator = Mockito.mock(UserCacheInvalidator.class);
+        lastLoginRecorder = new LastLoginRecorder(jdbcTemplate, cacheInvalidator);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void givenRepeatedLoginsThenFlushLatestTimestampOnce() {
+
+        UUID id = UUID.randomUUID();
+        Instant first = Instant.parse("2022-06-26T13:37:52.864Z");
+        Instant second = first.plusSeconds(10);
+
+        lastLoginRecorder.record(id, second);
+        lastLoginRecorder.record(id, first);
+        lastLoginRecorder.record(UUID.randomUUID(), first);
+        lastLoginRecorder.flush();
+
+        ArgumentCaptor<List<Object[]>> batch = ArgumentCaptor.forClass(List.class);
+        verify(jdbcTemplate, times(1)).batchUpdate(anyString(), batch.capture());
+
+        Assertions.assertEquals(2, batch.getValue().size());
+        Object[] row = batch.getValue().stream().filter(r -> Arrays.equals(UUIDUtil.toBytes(id), (byte[]) r[1])).findFirst().orElseThrow();
+        Assertions.assertEquals(Timestamp.from(second), row[0]);
+        Assertions.assertEquals(0, lastLoginRecorder.pendingCount());
+        ArgumentCaptor<Collection<UserInvalidation>> invalidations = ArgumentCaptor.forClass(Collection.class);
+        verify(cacheInvalidator, times(1)).publish(invalidations.capture());
+        Assertions.assertTrue(invalidations.getValue().stream().anyMatch(invalidation -> id.equals(invalidation.getId())));
+    }
+
+    @Test
+    public void givenNothingRecordedThenFlushSkipsDatabase() {
+
+        lastLoginRecorder.flush();
+
+        verify(jdbcTemplate, never()).batchUpdate(anyString(), anyList());
+    }
+
+    @Test
+    public void givenFailedFlushThenKeepTimestampsForNextFlush() {
+
+        Mockito.when(jdbcTemplate.batchUpdate(anyString(), anyList())).thenThrow(new DataAccessResourceFailureException("down"));
+
+        lastLoginRecorder.record(UUID.randomUUID(), Instant.now());
+        lastLoginRecorder.flush();
+
+        Assertions.assertEquals(1, lastLoginRecorder.pendingCount());
+    }
+
+}
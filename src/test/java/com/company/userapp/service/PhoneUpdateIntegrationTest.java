@@ -0,0 +1,186 @@
+package com.company.userapp.service;
+
+import com.company.userapp.dto.model.PhoneDto;
+import com.company.userapp.dto.model.UserDto;
+import com.company.userapp.dto.model.UserPatchDto;
+import com.company.userapp.dto.response.UserResponse;
+import com.company.userapp.model.PhoneIdGenerator;
+import com.company.userapp.model.User;
+import com.company.userapp.repository.UserRepository;
+import com.company.userapp.service.mapper.UserMapper;
+import com.company.userapp.util.ETagUtil;
+import com.company.userapp.util.JWTUtil;
+import com.company.userapp.util.UtilTest;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.core.env.Environment;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+import javax.persistence.EntityManagerFactory;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+@ExtendWith(SpringExtension.class)
+// a database of its own, so another context recreating phone_sequence on the shared one cannot
+// hand out phone ids this context still holds in its pooled allocation
+@SpringBootTest(properties = { "spring.jpa.properties.hibernate.generate_statistics=true",
+        "spring.datasource.url=jdbc:h2:mem:statistics" })
+public class PhoneUpdateIntegrationTest {
+
+    private static final PhoneDto HOME = new PhoneDto("1234567", "1", "57");
+
+    private static final PhoneDto WORK = new PhoneDto("7654321", "2", "57");
+
+    private static final PhoneDto MOBILE = new PhoneDto("5555555", "9", "56");
+
+    private static final PhoneDto OFFICE = new PhoneDto("4444444", "3", "56");
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private UserMapper userMapper;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private Environment environment;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    public void setup() {
+        this.statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    private User savingUser(String email, Set<PhoneDto> phones) {
+        UserDto userDto = UtilTest.buildUserDto();
+        userDto.setEmail(email);
+        userDto.setPhones(phones);
+        return userRepository.save(userMapper.toUser(userDto));
+    }
+
+    private UserDto request(String email, Set<PhoneDto> phones) {
+        UserDto userDto = UtilTest.buildUserDto();
+        userDto.setEmail(email);
+        userDto.setPhones(phones);
+        return userDto;
+    }
+
+    private Set<String> numbers(UserResponse response) {
+        return response.getPhones().stream().map(PhoneDto::getNumber).collect(Collectors.toSet());
+    }
+
+    @Test
+    public void givenUnchangedPhonesThenUpdateWritesNoPhoneRows() {
+
+        User user = savingUser("phones_unchanged@domain.cl", Set.of(HOME, WORK));
+        statistics.clear();
+
+        UserResponse response = userService.update(user.getId().toString(), request(user.getEmail(), Set.of(HOME, WORK)),
+                JWTUtil.TOKEN_PREFIX + user.getToken(), null);
+
+        Assertions.assertEquals(Set.of("1234567", "7654321"), numbers(response));
+        Assertions.assertEquals(0, statistics.getEntityInsertCount());
+        Assertions.assertEquals(0, statistics.getEntityDeleteCount());
+        // the phones on the first read and the user update; the user and the merge hit the second-level cache
+        Assertions.assertEquals(2, statistics.getPrepareStatementCount());
+        Assertions.assertEquals(1, statistics.getEntityUpdateCount());
+    }
+
+    @Test
+    public void givenPartiallyChangedPhonesThenUpdateInsertsAndDeletesOnlyTheDifference() {
+
+        User user = savingUser("phones_partial@domain.cl", Set.of(HOME, WORK));
+        statistics.clear();
+
+        UserResponse response = userService.update(user.getId().toString(), request(user.getEmail(), Set.of(HOME, MOBILE)),
+                JWTUtil.TOKEN_PREFIX + user.getToken(), null);
+
+        Assertions.assertEquals(Set.of("1234567", "5555555"), numbers(response));
+        Assertions.assertEquals(1, statistics.getEntityInsertCount());
+        Assertions.assertEquals(1, statistics.getEntityDeleteCount());
+        Assertions.assertEquals(2, userRepository.findWithPhonesById(user.getId()).orElseThrow().getPhones().size());
+    }
+
+    @Test
+    public void givenReplacedPhonesThenUpdateBatchesInsertsAndDeletes() {
+
+        User user = savingUser("phones_replaced@domain.cl", Set.of(HOME, WORK));
+        statistics.clear();
+
+        UserResponse response = userService.update(user.getId().toString(), request(user.getEmail(), Set.of(MOBILE, OFFICE)),
+                JWTUtil.TOKEN_PREFIX + user.getToken(), null);
+
+        Assertions.assertEquals(Set.of("5555555", "4444444"), numbers(response));
+        Assertions.assertEquals(2, statistics.getEntityInsertCount());
+        // the phones on the first read, the user update, one insert batch, one delete batch and at
+        // most one sequence call for both ids; the user and the merge hit the second-level cache
+        Assertions.assertTrue(statistics.getPrepareStatementCount() <= 5);
+        Assertions.assertEquals(2, statistics.getEntityDeleteCount());
+        Assertions.assertEquals(Set.of("5555555", "4444444"),
+                numbers(userMapper.entityToUserResponse(userRepository.findWithPhonesById(user.getId()).orElseThrow())));
+    }
+
+    @Test
+    public void givenIfMatchWithPartiallyChangedPhonesThenOnlyTheDifferenceIsWritten() {
+
+        User user = savingUser("phones_if_match@domain.cl", Set.of(HOME, WORK));
+
+        UserResponse response = userService.update(user.getId().toString(), request(user.getEmail(), Set.of(HOME, MOBILE)),
+                JWTUtil.TOKEN_PREFIX + user.getToken(), ETagUtil.userETag(user.getVersion(), user.getModified(), user.getLastLogin()));
+
+        Assertions.assertEquals(Set.of("1234567", "5555555"), numbers(response));
+        Assertions.assertEquals(2, userRepository.findWithPhonesById(user.getId()).orElseThrow().getPhones().size());
+    }
+
+    @Test
+    public void givenPatchWithoutPhonesThenOnlyTheUserRowIsUpdated() {
+
+        User user = savingUser("phones_patch@domain.cl", Set.of(HOME, WORK));
+        statistics.clear();
+
+        UserResponse response = userService.patch(user.getId().toString(), new UserPatchDto("Juan Patched", null, null, null),
+                JWTUtil.TOKEN_PREFIX + user.getToken(), null);
+
+        Assertions.assertEquals("Juan Patched", response.getName());
+        Assertions.assertEquals(Set.of("1234567", "7654321"), numbers(response));
+        Assertions.assertEquals(0, statistics.getEntityInsertCount());
+        Assertions.assertEquals(0, statistics.getEntityDeleteCount());
+        // the targeted update, then the user and its phones for the response since the update evicts them
+        Assertions.assertEquals(3, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    public void givenUserWithManyPhonesThenCreateBatchesPhoneInserts() {
+
+        Set<PhoneDto> phones = new HashSet<>();
+        for ( int i = 0; i < 40; i++ ) {
+            phones.add(new PhoneDto(String.valueOf(3000000 + i), "1", "57"));
+        }
+        statistics.clear();
+
+        UserResponse response = userService.create(request("phones_many@domain.cl", phones));
+
+        Assertions.assertEquals(40, response.getPhones().size());
+        Assertions.assertEquals(41, statistics.getEntityInsertCount());
+        // the user insert and one batched phone insert, plus one sequence call per allocation-size
+        // ids and one more when the current pool is nearly used up
+        int allocationSize = environment.getProperty("user.phone.id.allocation-size", Integer.class, PhoneIdGenerator.DEFAULT_ALLOCATION_SIZE);
+        long bound = 2 + (40 + allocationSize - 1) / allocationSize + 1;
+        Assertions.assertTrue(statistics.getPrepareStatementCount() <= bound,
+                "Expected at most " + bound + " statements but was " + statistics.getPrepareStatementCount());
+    }
+
+}
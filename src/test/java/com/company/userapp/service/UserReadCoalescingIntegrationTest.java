@@ -0,0 +1,105 @@
+package com.company.userapp.service;
+
+import com.company.userapp.dto.model.UserDto;
+import com.company.userapp.dto.response.SerializedUserResponse;
+import com.company.userapp.model.User;
+import com.company.userapp.repository.UserRepository;
+import com.company.userapp.service.mapper.UserMapper;
+import com.company.userapp.util.JWTUtil;
+import com.company.userapp.util.UtilTest;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+import javax.persistence.EntityManagerFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+@ExtendWith(SpringExtension.class)
+@SpringBootTest(properties = { "spring.jpa.properties.hibernate.generate_statistics=true",
+        "spring.datasource.url=jdbc:h2:mem:statistics" })
+public class UserReadCoalescingIntegrationTest {
+
+    private static final int REQUESTS = 300;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private UserMapper userMapper;
+
+    @Autowired
+    private UserResponseCache responseCache;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+    private User user;
+
+    @BeforeEach
+    public void setup() {
+
+        UserDto userDto = UtilTest.buildUserDto();
+        userDto.setEmail("coalescing@domain.cl");
+        user = userRepository.save(userMapper.toUser(userDto));
+
+        responseCache.invalidate(user.getId());
+        entityManagerFactory.getCache().evictAll();
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    public void givenConcurrentReadsOfColdUserThenLoadItOnce() throws Exception {
+
+        String id = user.getId().toString();
+        String bearer = JWTUtil.TOKEN_PREFIX + user.getToken();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(64);
+
+        List<Future<SerializedUserResponse>> responses = new ArrayList<>(REQUESTS);
+        try {
+            for ( int i = 0; i < REQUESTS; i++ ) {
+                responses.add(executor.submit(() -> {
+                    start.await();
+                    return userService.findSerializedById(id, bearer);
+                }));
+            }
+            start.countDown();
+
+            SerializedUserResponse first = responses.get(0).get(30, TimeUnit.SECONDS);
+            for ( Future<SerializedUserResponse> response : responses ) {
+                Assertions.assertSame(first, response.get(30, TimeUnit.SECONDS));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        // one SELECT of the user row and one of its phones, shared by every request
+        Assertions.assertEquals(1, statistics.getEntityStatistics(User.class.getName()).getLoadCount());
+        Assertions.assertEquals(2, statistics.getPrepareStatementCount());
+    }
+
+    @AfterEach
+    public void clean() {
+        userRepository.deleteById(user.getId());
+    }
+
+}
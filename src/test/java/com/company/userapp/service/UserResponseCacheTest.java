@@ -0,0 +1,108 @@
+package com.company.userapp.service;
+
+import com.company.userapp.configuration.AppConfig;
+import com.company.userapp.dto.response.UserResponse;
+import com.company.userapp.util.UtilTest;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class UserResponseCacheTest {
+
+    private UserResponseCache responseCache;
+
+    private UserResponse userResponse;
+
+    private UUID id;
+
+    @BeforeEach
+    public void setup() {
+        responseCache = new UserResponseCache(new AppConfig().objectMapper(), 2);
+        userResponse = UtilTest.buildUserResponse(UtilTest.buildUser(UtilTest.buildUserDto()), UtilTest.buildUserDto().getPhones());
+        id = UUID.fromString(userResponse.getId());
+    }
+
+    private UserResponseCache.Entry entry() {
+        return responseCache.entry(userResponse.getToken(), "\"etag\"", userResponse);
+    }
+
+    @Test
+    public void givenLoadedResponseThenServeSerializedBodyAndTokenFromCache() {
+
+        UserResponseCache.Entry loaded = responseCache.getOrLoad(id, this::entry);
+        UserResponseCache.Entry cached = responseCache.getOrLoad(id, () -> {
+            throw new AssertionError("cached response loaded again");
+        });
+
+        Assertions.assertSame(loaded, cached);
+        Assertions.assertEquals(userResponse.getToken(), cached.getToken());
+        Assertions.assertTrue(new String(cached.getResponse().getBody(), StandardCharsets.UTF_8).contains("\"isactive\":true"));
+        Assertions.assertEquals("\"etag\"", cached.getResponse().getETag());
+    }
+
+    @Test
+    public void givenInvalidationDuringLoadThenResponseIsServedButNotCached() {
+
+        UserResponseCache.Entry loaded = responseCache.getOrLoad(id, () -> {
+            UserResponseCache.Entry entry = entry();
+            responseCache.invalidate(id);
+            return entry;
+        });
+
+        Assertions.assertNotNull(loaded);
+        Assertions.assertNull(responseCache.get(id));
+    }
+
+    @Test
+    public void givenInvalidationDuringLoadThenLaterReadDoesNotJoinIt() throws Exception {
+
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        UserResponseCache.Entry stale = entry();
+        CompletableFuture<UserResponseCache.Entry> before = CompletableFuture.supplyAsync(() -> responseCache.getOrLoad(id, () -> {
+            loading.countDown();
+            try {
+                release.await(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return stale;
+        }));
+
+        Assertions.assertTrue(loading.await(10, TimeUnit.SECONDS));
+        responseCache.invalidate(id);
+        UserResponseCache.Entry fresh = entry();
+        UserResponseCache.Entry after = responseCache.getOrLoad(id, () -> fresh);
+        release.countDown();
+
+        Assertions.assertSame(fresh, after);
+        Assertions.assertSame(stale, before.get(10, TimeUnit.SECONDS));
+        Assertions.assertSame(fresh, responseCache.get(id));
+    }
+
+    @Test
+    public void givenInvalidatedResponseThenNextReadLoadsAgain() {
+
+        AtomicInteger loads = new AtomicInteger();
+        responseCache.getOrLoad(id, () -> {
+            loads.incrementAndGet();
+            return entry();
+        });
+        responseCache.invalidate(id);
+
+        Assertions.assertNull(responseCache.get(id));
+        responseCache.getOrLoad(id, () -> {
+            loads.incrementAndGet();
+            return entry();
+        });
+        Assertions.assertEquals(2, loads.get());
+    }
+
+}
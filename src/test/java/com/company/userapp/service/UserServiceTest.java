@@ -1,20 +1,28 @@
 package com.company.userapp.service;
 
+import com.company.userapp.configuration.AppConfig;
 import com.company.userapp.dto.model.PhoneDto;
 import com.company.userapp.dto.model.UserDto;
+import com.company.userapp.dto.model.UserPatchDto;
+import com.company.userapp.dto.response.SerializedUserResponse;
 import com.company.userapp.dto.response.UserResponse;
 
 import com.company.userapp.exception.BadRequestException;
 import com.company.userapp.exception.ConflictException;
+import com.company.userapp.exception.ForbiddenException;
 import com.company.userapp.exception.InternalServerErrorException;
 import com.company.userapp.exception.NotFoundException;
 import com.company.userapp.model.Phone;
 import com.company.userapp.model.User;
 import com.company.userapp.repository.UserRepository;
+import com.company.userapp.repository.UserVersion;
+import com.company.userapp.security.TokenOwnerCache;
 import com.company.userapp.service.mapper.UserMapper;
 
+import com.company.userapp.util.ETagUtil;
 import com.company.userapp.util.JWTUtil;
 import com.company.userapp.util.UtilTest;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -25,12 +33,18 @@ import org.mockito.Mockito;
 
 import org.springframework.boot.test.context.SpringBootTest;
 
+import org.springframework.core.env.Environment;
 import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
 
+import java.nio.charset.StandardCharsets;
 import java.time.Instant;
 import java.util.*;
 
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 
@@ -42,6 +56,14 @@ public class UserServiceTest {
     private UserRepository userRepository;
     @Mock
     private UserMapper userMapper;
+    @Mock
+    private TokenOwnerCache ownerCache;
+    @Mock
+    private UserResponseCache responseCache;
+    @Mock
+    private UserCacheInvalidator cacheInvalidator;
+    @Mock
+    private Environment environment;
 
     @InjectMocks
     private UserService userService;
@@ -98,16 +120,49 @@ public class UserServiceTest {
     }
 
     @Test
-    public void givenFindByIdThatValidIdThenReturnUserResponse() {
+    public void givenFindByIdThatValidIdThenReturnSerializedUserResponse() {
 
+        UserService cachingService = cachingUserService();
         Mockito.when(userMapper.toUUID(user.getId().toString())).thenReturn(user.getId());
-        Mockito.when(userRepository.findById(user.getId())).thenReturn(Optional.of(user));
+        Mockito.when(userRepository.findWithPhonesById(user.getId())).thenReturn(Optional.of(user));
         Mockito.when(userMapper.entityToUserResponse(user)).thenReturn(userResponse);
 
-        UserResponse response = userService.findById(user.getId().toString(), user.getToken());
+        SerializedUserResponse response = cachingService.findSerializedById(user.getId().toString(), user.getToken());
 
-        Assertions.assertEquals(response.getId(), userResponse.getId());
-        Assertions.assertEquals(response.getEmail(), userResponse.getEmail());
+        String body = new String(response.getBody(), StandardCharsets.UTF_8);
+        Assertions.assertTrue(body.contains(userResponse.getId()));
+        Assertions.assertTrue(body.contains(userResponse.getEmail()));
+    }
+
+    @Test
+    public void givenFindSerializedByIdTwiceThenSecondReadSkipsRepository() {
+
+        UserService cachingService = cachingUserService();
+        Mockito.when(userMapper.toUUID(user.getId().toString())).thenReturn(user.getId());
+        Mockito.when(userRepository.findWithPhonesById(user.getId())).thenReturn(Optional.of(user));
+        Mockito.when(userMapper.entityToUserResponse(user)).thenReturn(userResponse);
+
+        SerializedUserResponse first = cachingService.findSerializedById(user.getId().toString(), user.getToken());
+        SerializedUserResponse second = cachingService.findSerializedById(user.getId().toString(), user.getToken());
+
+        Assertions.assertSame(first, second);
+        Assertions.assertNotNull(first.getETag());
+        verify(userRepository, times(1)).findWithPhonesById(user.getId());
+    }
+
+    @Test
+    public void givenCachedResponseAndOtherTokenThenThrowsForbiddenException() {
+
+        UserService cachingService = cachingUserService();
+        Mockito.when(userMapper.toUUID(user.getId().toString())).thenReturn(user.getId());
+        Mockito.when(userRepository.findWithPhonesById(user.getId())).thenReturn(Optional.of(user));
+        Mockito.when(userMapper.entityToUserResponse(user)).thenReturn(userResponse);
+
+        cachingService.findSerializedById(user.getId().toString(), user.getToken());
+
+        Assertions.assertThrows(ForbiddenException.class, () -> {
+            cachingService.findSerializedById(user.getId().toString(), "other-token");
+        });
     }
 
     @Test
@@ -116,18 +171,19 @@ public class UserServiceTest {
         Mockito.when(userMapper.toUUID(user.getId().toString())).thenThrow(BadRequestException.class);
 
         Assertions.assertThrows(BadRequestException.class, () -> {
-            userService.findById(user.getId().toString(), user.getToken());
+            userService.findSerializedById(user.getId().toString(), user.getToken());
         });
     }
 
     @Test
     public void givenFindByIdThatNotFoundIdThenReturnNotFoundException() {
 
+        UserService cachingService = cachingUserService();
         Mockito.when(userMapper.toUUID(user.getId().toString())).thenReturn(user.getId());
-        Mockito.when(userRepository.findById(UUID.randomUUID())).thenThrow(NotFoundException.class);
+        Mockito.when(userRepository.findWithPhonesById(user.getId())).thenReturn(Optional.empty());
 
         Assertions.assertThrows(NotFoundException.class, () -> {
-            userService.findById(user.getId().toString(), user.getToken());
+            cachingService.findSerializedById(user.getId().toString(), user.getToken());
         });
     }
 
@@ -135,12 +191,12 @@ public class UserServiceTest {
     public void givenUpdateUserThatUserDtoThenUpdateSuccessfully() {
 
         Mockito.when(userMapper.toUUID(user.getId().toString())).thenReturn(user.getId());
-        Mockito.when(userRepository.findById(user.getId())).thenReturn(Optional.of(user));
+        Mockito.when(userRepository.findWithPhonesById(user.getId())).thenReturn(Optional.of(user));
         Mockito.when(userMapper.updateEntity(user, userDto)).thenReturn(user);
         Mockito.when(userRepository.save(user)).thenReturn(user);
         Mockito.when(userMapper.entityToUserResponse(user)).thenReturn(userResponse);
 
-        UserResponse response = userService.update(user.getId().toString(), userDto, user.getToken());
+        UserResponse response = userService.update(user.getId().toString(), userDto, user.getToken(), null);
 
         Assertions.assertEquals(response.getId(), userResponse.getId());
         Assertions.assertEquals(response.getEmail(), userResponse.getEmail());
@@ -154,7 +210,7 @@ public class UserServiceTest {
         Mockito.when(userRepository.findById(UUID.randomUUID())).thenThrow(NotFoundException.class);
 
         Assertions.assertThrows(NotFoundException.class, () -> {
-            userService.update(user.getId().toString(), userDto, user.getToken());
+            userService.update(user.getId().toString(), userDto, user.getToken(), null);
         });
     }
 
@@ -162,12 +218,12 @@ public class UserServiceTest {
     public void givenUpdateThatEmailAlreadyExistsThenThrowsConflictException() {
 
         Mockito.when(userMapper.toUUID(user.getId().toString())).thenReturn(user.getId());
-        Mockito.when(userRepository.findById(user.getId())).thenReturn(Optional.of(user));
+        Mockito.when(userRepository.findWithPhonesById(user.getId())).thenReturn(Optional.of(user));
         Mockito.when(userMapper.updateEntity(user, userDto)).thenReturn(user);
         Mockito.when(userRepository.save(user)).thenThrow(new DataIntegrityViolationException("unique_email_constraint"));
 
         Assertions.assertThrows(ConflictException.class, () -> {
-            userService.update(user.getId().toString(), userDto, user.getToken());
+            userService.update(user.getId().toString(), userDto, user.getToken(), null);
         });
 
     }
@@ -176,16 +232,50 @@ public class UserServiceTest {
     public void givenUpdateThatFailSavingUserThenThrowsInternalServerErrorException() {
 
         Mockito.when(userMapper.toUUID(user.getId().toString())).thenReturn(user.getId());
-        Mockito.when(userRepository.findById(user.getId())).thenReturn(Optional.of(user));
+        Mockito.when(userRepository.findWithPhonesById(user.getId())).thenReturn(Optional.of(user));
         Mockito.when(userMapper.updateEntity(user, userDto)).thenReturn(user);
         Mockito.when(userRepository.save(user)).thenThrow(DataIntegrityViolationException.class);
 
         Assertions.assertThrows(InternalServerErrorException.class, () -> {
-            userService.update(user.getId().toString(), userDto, user.getToken());
+            userService.update(user.getId().toString(), userDto, user.getToken(), null);
         });
 
     }
 
+    @Test
+    public void givenIfMatchUpdateWithOtherTokenThenThrowsForbiddenExceptionWithOutHashing() {
+
+        Mockito.when(userMapper.toUUID(user.getId().toString())).thenReturn(user.getId());
+        Mockito.when(ownerCache.get("other-token")).thenReturn(UUID.randomUUID());
+        UserVersion version = Mockito.mock(UserVersion.class);
+        Mockito.when(version.getToken()).thenReturn(user.getToken());
+        Mockito.when(userRepository.findVersionById(user.getId())).thenReturn(Optional.of(version));
+        String ifMatch = ETagUtil.userETag(1, Instant.now(), Instant.now());
+
+        Assertions.assertThrows(ForbiddenException.class, () -> {
+            userService.update(user.getId().toString(), userDto, JWTUtil.TOKEN_PREFIX + "other-token", ifMatch);
+        });
+        verify(userMapper, never()).updateEntity(any(), any());
+        verify(userRepository, never()).updateIfMatches(any(), any(), any(), any());
+    }
+
+    @Test
+    public void givenPatchWithPasswordAndUnknownTokenThenThrowsForbiddenExceptionWithOutHashing() {
+
+        Mockito.when(userMapper.toUUID(user.getId().toString())).thenReturn(user.getId());
+        Mockito.when(userRepository.findIdByToken("other-token")).thenReturn(Optional.empty());
+        UserVersion version = Mockito.mock(UserVersion.class);
+        Mockito.when(version.getToken()).thenReturn(user.getToken());
+        Mockito.when(userRepository.findVersionById(user.getId())).thenReturn(Optional.of(version));
+
+        Assertions.assertThrows(ForbiddenException.class, () -> {
+            userService.patch(user.getId().toString(), new UserPatchDto(null, null, "new-password", null),
+                    JWTUtil.TOKEN_PREFIX + "other-token", null);
+        });
+        verify(userMapper, never()).patchToChanges(any());
+        verify(userRepository, never()).updateIfMatches(any(), any(), any(), any());
+    }
+
     @Test
     public void givenDeleteUserThatValidIdThenDeleteSuccessfully() {
 
@@ -196,6 +286,7 @@ public class UserServiceTest {
 
         verify(userMapper, times(1)).toUUID(user.getId().toString());
         verify(userRepository, times(1)).findById(user.getId());
+        verify(cacheInvalidator, times(1)).userDeleted(user.getId(), user.getToken());
     }
 
     @Test
@@ -219,4 +310,83 @@ public class UserServiceTest {
         });
     }
 
+    @Test
+    public void givenPrincipalModeAndCachedOwnerThenFindByIdWithOutTokenLookup() {
+
+        UserService principalService = principalUserService();
+        authenticate();
+        Mockito.when(userMapper.toUUID(user.getId().toString())).thenReturn(user.getId());
+        Mockito.when(ownerCache.get(user.getToken())).thenReturn(user.getId());
+        Mockito.when(userRepository.findWithPhonesById(user.getId())).thenReturn(Optional.of(user));
+        Mockito.when(userMapper.entityToUserResponse(user)).thenReturn(userResponse);
+
+        SerializedUserResponse response = principalService.findSerializedById(user.getId().toString(), JWTUtil.TOKEN_PREFIX + user.getToken());
+
+        Assertions.assertTrue(new String(response.getBody(), StandardCharsets.UTF_8).contains(userResponse.getId()));
+        verify(userRepository, never()).findIdByToken(any());
+    }
+
+    @Test
+    public void givenPrincipalModeAndOtherOwnerThenThrowsForbiddenExceptionWithOutLoadingUser() {
+
+        UserService principalService = principalUserService();
+        authenticate();
+        Mockito.when(userMapper.toUUID(user.getId().toString())).thenReturn(user.getId());
+        Mockito.when(ownerCache.get(user.getToken())).thenReturn(UUID.randomUUID());
+
+        Assertions.assertThrows(ForbiddenException.class, () -> {
+            principalService.findSerializedById(user.getId().toString(), JWTUtil.TOKEN_PREFIX + user.getToken());
+        });
+        verify(userRepository, never()).findWithPhonesById(any());
+    }
+
+    @Test
+    public void givenPrincipalModeAndUnknownOwnerThenResolveOwnerByToken() {
+
+        UserService principalService = principalUserService();
+        authenticate();
+        Mockito.when(userMapper.toUUID(user.getId().toString())).thenReturn(user.getId());
+        Mockito.when(userRepository.findIdByToken(user.getToken())).thenReturn(Optional.of(user.getId()));
+        Mockito.when(userRepository.deleteByIdAndToken(user.getId(), user.getToken())).thenReturn(1);
+
+        principalService.delete(user.getId().toString(), JWTUtil.TOKEN_PREFIX + user.getToken());
+
+        verify(ownerCache, times(1)).put(user.getToken(), user.getId());
+        verify(userRepository, times(1)).deleteByIdAndToken(user.getId(), user.getToken());
+        verify(userRepository, never()).findById(any());
+        verify(cacheInvalidator, times(1)).userDeleted(user.getId(), user.getToken());
+    }
+
+    @Test
+    public void givenPrincipalModeAndNotAuthenticatedThenThrowsForbiddenException() {
+
+        UserService principalService = principalUserService();
+        Mockito.when(userMapper.toUUID(user.getId().toString())).thenReturn(user.getId());
+
+        Assertions.assertThrows(ForbiddenException.class, () -> {
+            principalService.delete(user.getId().toString(), JWTUtil.TOKEN_PREFIX + user.getToken());
+        });
+        verify(userRepository, never()).deleteByIdAndToken(any(), any());
+    }
+
+    @AfterEach
+    public void clearSecurityContext() {
+        SecurityContextHolder.clearContext();
+    }
+
+    private UserService principalUserService() {
+        Mockito.when(environment.getProperty("user.authorization.mode", "entity")).thenReturn("principal");
+        return cachingUserService();
+    }
+
+    private UserService cachingUserService() {
+        return new UserService(userRepository, userMapper, ownerCache,
+                new UserResponseCache(new AppConfig().objectMapper(), 10), cacheInvalidator, environment);
+    }
+
+    private void authenticate() {
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(user.getEmail(), null, new ArrayList<>()));
+    }
+
 }
@@ -1,14 +1,15 @@
 package com.company.userapp.service.mapper;
 
 import com.company.userapp.dto.model.UserDto;
+import com.company.userapp.dto.model.UserPatchDto;
 import com.company.userapp.dto.response.UserResponse;
 import com.company.userapp.exception.BadRequestException;
 
 import com.company.userapp.model.User;
 
+import com.company.userapp.security.JwtTokenCodec;
+import com.company.userapp.security.PasswordHasher;
 import com.company.userapp.util.UtilTest;
-import com.fasterxml.jackson.core.type.TypeReference;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -18,26 +19,19 @@ import org.mockito.Mock;
 import org.mockito.Mockito;
 import org.springframework.boot.test.context.SpringBootTest;
 
-import org.springframework.core.env.Environment;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
 
 import java.util.*;
 
-import static org.mockito.ArgumentMatchers.*;
-
 @ExtendWith(SpringExtension.class)
 @SpringBootTest
 public class UserMapperTest {
 
     @Mock
-    private ObjectMapper objectMapper;
-
-    @Mock
-    private BCryptPasswordEncoder passwordEncoder;
+    private PasswordHasher passwordHasher;
 
     @Mock
-    private Environment environment;
+    private JwtTokenCodec tokenCodec;
 
     @InjectMocks
     private UserMapper userMapper;
@@ -59,9 +53,8 @@ public class UserMapperTest {
     @Test
     public void givenUserDtoConvertToUser() {
 
-        Mockito.when(objectMapper.convertValue(userDto, User.class)).thenReturn(user);
-        Mockito.when(passwordEncoder.encode(user.getPassword())).thenReturn("x-password-x");
-        Mockito.when(environment.getProperty("user.secret.token", "SECRET_TOKEN_DEMO")).thenReturn("SECRET_TOKEN_DEMO");
+        Mockito.when(passwordHasher.encode(user.getPassword())).thenReturn("x-password-x");
+        Mockito.when(tokenCodec.sign(user.getEmail())).thenReturn(user.getToken());
         User user = userMapper.toUser(userDto);
 
         Assertions.assertNotNull(user);
@@ -69,27 +62,53 @@ public class UserMapperTest {
         Assertions.assertNotNull(user.getModified());
         Assertions.assertNotNull(user.getToken());
         Assertions.assertEquals("x-password-x", user.getPassword());
+        Assertions.assertEquals(userDto.getEmail(), user.getEmail());
+        Assertions.assertEquals(1, user.getPhones().size());
+        user.getPhones().forEach(phone -> {
+            Assertions.assertEquals("1234567", phone.getNumber());
+            Assertions.assertEquals("1", phone.getCityCode());
+            Assertions.assertEquals("57", phone.getCountryCode());
+            Assertions.assertSame(user, phone.getUser());
+        });
     }
 
     @Test
     public void givenUserAndUserDto() {
 
-        Mockito.when(objectMapper.convertValue(anySet(), any(TypeReference.class))).thenReturn(user.getPhones());
+        Mockito.when(passwordHasher.encode(userDto.getPassword())).thenReturn("x-password-x");
 
         userDto.setName("New name");
         User _user = userMapper.updateEntity(user, userDto);
 
         Assertions.assertEquals(user.getName(), _user.getName());
+        Assertions.assertEquals("x-password-x", _user.getPassword());
+        Assertions.assertEquals(1, _user.getPhones().size());
+        _user.getPhones().forEach(phone -> Assertions.assertSame(_user, phone.getUser()));
     }
 
     @Test
-    public void givenEntityToUserResponse() {
+    public void givenPatchWithoutPasswordThenSkipHashing() {
 
-        Mockito.when(objectMapper.convertValue(any(), any(Class.class))).thenReturn(userResponse);
+        User changes = userMapper.patchToChanges(new UserPatchDto("New name", null, null, null));
+
+        Assertions.assertEquals("New name", changes.getName());
+        Assertions.assertNull(changes.getEmail());
+        Assertions.assertNull(changes.getPassword());
+        Assertions.assertNull(changes.getPhones());
+        Assertions.assertNotNull(changes.getModified());
+        Mockito.verifyNoInteractions(passwordHasher);
+    }
+
+    @Test
+    public void givenEntityToUserResponse() {
 
         UserResponse response = userMapper.entityToUserResponse(user);
 
-        Assertions.assertEquals(response.getId(), userResponse.getId());
+        Assertions.assertEquals(userResponse.getId(), response.getId());
+        Assertions.assertEquals(userResponse.getEmail(), response.getEmail());
+        Assertions.assertEquals(userResponse.getIsActive(), response.getIsActive());
+        Assertions.assertEquals(userResponse.getToken(), response.getToken());
+        Assertions.assertEquals(user.getPhones().size(), response.getPhones().size());
     }
 
 
@@ -0,0 +1,42 @@
+package com.company.userapp.util;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+
+public class ETagUtilTest {
+
+    private static final Instant MODIFIED = Instant.parse("2022-06-26T13:37:52.864Z");
+
+    @Test
+    public void givenSameMillisThenReturnSameETag() {
+        Assertions.assertEquals(ETagUtil.userETag(0, MODIFIED, MODIFIED), ETagUtil.userETag(0, MODIFIED.plusNanos(999), MODIFIED));
+    }
+
+    @Test
+    public void givenNewLoginThenReturnDifferentETag() {
+        Assertions.assertNotEquals(ETagUtil.userETag(0, MODIFIED, MODIFIED), ETagUtil.userETag(0, MODIFIED, MODIFIED.plusSeconds(1)));
+    }
+
+    @Test
+    public void givenIfNoneMatchListOrWildcardThenMatches() {
+
+        String eTag = ETagUtil.userETag(0, MODIFIED, MODIFIED);
+
+        Assertions.assertTrue(ETagUtil.matches("\"other\", " + eTag, eTag));
+        Assertions.assertTrue(ETagUtil.matches("W/" + eTag, eTag));
+        Assertions.assertTrue(ETagUtil.matches("*", eTag));
+        Assertions.assertFalse(ETagUtil.matches("\"other\"", eTag));
+        Assertions.assertFalse(ETagUtil.matches(null, eTag));
+    }
+
+    @Test
+    public void givenStrongUserETagThenReturnVersion() {
+
+        Assertions.assertEquals(26L, ETagUtil.version(ETagUtil.userETag(26, MODIFIED, MODIFIED)));
+        Assertions.assertNull(ETagUtil.version("W/" + ETagUtil.userETag(26, MODIFIED, MODIFIED)));
+        Assertions.assertNull(ETagUtil.version("\"not-a-version\""));
+    }
+
+}
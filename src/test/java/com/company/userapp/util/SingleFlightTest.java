@@ -0,0 +1,120 @@
+package com.company.userapp.util;
+
+import com.company.userapp.exception.NotFoundException;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class SingleFlightTest {
+
+    @Test
+    public void givenConcurrentCallsForSameKeyThenLoadOnce() throws Exception {
+
+        SingleFlight<String, String> flight = new SingleFlight<>();
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+
+        try {
+            List<Future<String>> results = new ArrayList<>();
+            results.add(executor.submit(() -> flight.execute("id", () -> {
+                loads.incrementAndGet();
+                await(release);
+                return "value";
+            })));
+            while ( flight.inFlight() == 0 ) {
+                Thread.onSpinWait();
+            }
+            for ( int i = 0; i < 7; i++ ) {
+                results.add(executor.submit(() -> flight.execute("id", () -> {
+                    loads.incrementAndGet();
+                    return "other";
+                })));
+            }
+
+            Thread.sleep(100);
+            release.countDown();
+
+            for ( Future<String> result : results ) {
+                Assertions.assertEquals("value", result.get(5, TimeUnit.SECONDS));
+            }
+            Assertions.assertEquals(1, loads.get());
+            Assertions.assertEquals(0, flight.inFlight());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void givenFailedLoadThenWaitersReceiveSameExceptionAndNextCallRetries() throws Exception {
+
+        SingleFlight<String, String> flight = new SingleFlight<>();
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+
+        try {
+            Future<String> leader = executor.submit(() -> flight.execute("id", () -> {
+                await(release);
+                throw new NotFoundException("User not found");
+            }));
+            while ( flight.inFlight() == 0 ) {
+                Thread.onSpinWait();
+            }
+            Future<String> waiter = executor.submit(() -> flight.execute("id", () -> "other"));
+
+            Thread.sleep(100);
+            release.countDown();
+
+            ExecutionException leaderFailure = Assertions.assertThrows(ExecutionException.class, () -> leader.get(5, TimeUnit.SECONDS));
+            ExecutionException waiterFailure = Assertions.assertThrows(ExecutionException.class, () -> waiter.get(5, TimeUnit.SECONDS));
+            Assertions.assertSame(leaderFailure.getCause(), waiterFailure.getCause());
+            Assertions.assertEquals("value", flight.execute("id", () -> "value"));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void givenForgottenKeyThenNextCallStartsNewLoad() throws Exception {
+
+        SingleFlight<String, String> flight = new SingleFlight<>();
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+
+        try {
+            Future<String> stale = executor.submit(() -> flight.execute("id", () -> {
+                await(release);
+                return "stale";
+            }));
+            while ( flight.inFlight() == 0 ) {
+                Thread.onSpinWait();
+            }
+
+            flight.forget("id");
+
+            Assertions.assertEquals("fresh", flight.execute("id", () -> "fresh"));
+            release.countDown();
+            Assertions.assertEquals("stale", stale.get(5, TimeUnit.SECONDS));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+}
@@ -0,0 +1,41 @@
+package com.company.userapp.util;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.UUID;
+
+public class UUIDUtilTest {
+
+    @Test
+    public void givenTimeOrderedIdThenVersionSevenWithTimestampPrefix() {
+
+        long now = System.currentTimeMillis();
+        UUID id = UUIDUtil.timeOrdered(now);
+
+        Assertions.assertEquals(7, id.version());
+        Assertions.assertEquals(2, id.variant());
+        Assertions.assertEquals(now, id.getMostSignificantBits() >>> 16);
+    }
+
+    @Test
+    public void givenLaterTimestampThenIdSortsAfterAsBytes() {
+
+        byte[] earlier = UUIDUtil.toBytes(UUIDUtil.timeOrdered(1656250672000L));
+        byte[] later = UUIDUtil.toBytes(UUIDUtil.timeOrdered(1656250672001L));
+
+        Assertions.assertTrue(Arrays.compareUnsigned(earlier, later) < 0);
+    }
+
+    @Test
+    public void givenUuidThenBytesRoundTrip() {
+
+        UUID id = UUID.randomUUID();
+        byte[] bytes = UUIDUtil.toBytes(id);
+
+        Assertions.assertEquals(16, bytes.length);
+        Assertions.assertEquals(id, UUIDUtil.fromBytes(bytes));
+    }
+
+}
@@ -0,0 +1,29 @@
+package com.company.userapp.util;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.UUID;
+
+public class UserCursorTest {
+
+    @Test
+    public void givenEncodedCursorThenDecodeSamePosition() {
+
+        UserCursor cursor = new UserCursor(Instant.parse("2022-06-26T13:37:52.864123Z"), UUID.randomUUID());
+
+        UserCursor decoded = UserCursor.decode(cursor.encode());
+
+        Assertions.assertEquals(cursor.getCreated(), decoded.getCreated());
+        Assertions.assertEquals(cursor.getId(), decoded.getId());
+    }
+
+    @Test
+    public void givenMalformedCursorThenReturnNull() {
+
+        Assertions.assertNull(UserCursor.decode("not a cursor"));
+        Assertions.assertNull(UserCursor.decode("MTIzNDU"));
+    }
+
+}